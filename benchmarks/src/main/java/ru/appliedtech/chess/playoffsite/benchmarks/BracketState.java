@@ -0,0 +1,145 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import freemarker.template.Configuration;
+import org.openjdk.jmh.annotations.*;
+import ru.appliedtech.chess.ChessBaseObjectMapper;
+import ru.appliedtech.chess.GameObjectMapper;
+import ru.appliedtech.chess.TournamentDescription;
+import ru.appliedtech.chess.TournamentSetupObjectNodeReader;
+import ru.appliedtech.chess.playoff.PlayoffLevelTable;
+import ru.appliedtech.chess.playoff.PlayoffSetup;
+import ru.appliedtech.chess.playoff.io.PlayoffSetupObjectNodeReader;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator.PlayoffLevelPlayersJsonRecord;
+import ru.appliedtech.chess.playoffsite.games.StreamingGameReader;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelTableView;
+import ru.appliedtech.chess.playoffsite.players.PlayerDirectory;
+import ru.appliedtech.chess.storage.GameReadOnlyStorage;
+import ru.appliedtech.chess.storage.GameStorage;
+import ru.appliedtech.chess.storage.PlayerStorage;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static java.util.Collections.emptyMap;
+
+@State(Scope.Benchmark)
+public class BracketState {
+    public static final String FIXTURE_PROPERTY = "playoffsite.benchmark.fixture";
+
+    // Empty means the fixture bundled with the benchmarks.
+    @Param("")
+    public String fixture;
+    @Param({"8", "64", "512"})
+    public int levels;
+    // Rounds of every time control, beyond which the fixture's setup shows none.
+    @Param({"1", "2"})
+    public int rounds;
+
+    public final Locale locale = Locale.US;
+    public SyntheticBracket bracket;
+    public ObjectMapper tournamentDescriptionMapper;
+    public ObjectMapper playersMapper;
+    public ObjectMapper gameObjectMapper;
+    public Configuration configuration;
+    public TournamentDescription tournamentDescription;
+    public PlayoffSetup playoffSetup;
+    public PlayerDirectory playerDirectory;
+    public PlayerStorage playerStorage;
+    public GameStorage gameStorage;
+    public List<PlayoffLevelPlayersJsonRecord> levelRecords;
+    public List<PlayoffLevelTable> levelTables;
+    public List<PlayoffLevelTableView> levelViews;
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String fixtureDir = fixture.isEmpty() ? System.getProperty(FIXTURE_PROPERTY) : fixture;
+        dir = Files.createTempDirectory("playoff-site-benchmark");
+        if (fixtureDir == null || fixtureDir.isEmpty()) {
+            Path bundled = BundledFixture.extract();
+            try {
+                bracket = createBracket(bundled);
+            } finally {
+                BundledFixture.delete(bundled);
+            }
+        } else {
+            bracket = createBracket(Paths.get(fixtureDir));
+        }
+        Map<String, TournamentSetupObjectNodeReader> tournamentSetupReaders = new HashMap<>();
+        tournamentSetupReaders.put("playoff", new PlayoffSetupObjectNodeReader());
+        tournamentDescriptionMapper = new ChessBaseObjectMapper(tournamentSetupReaders);
+        playersMapper = new ChessBaseObjectMapper(emptyMap());
+        configuration = PlayoffSiteGenerator.createTemplatesConfiguration();
+
+        tournamentDescription = readTournamentDescription();
+        playoffSetup = (PlayoffSetup) tournamentDescription.getTournamentSetup();
+        gameObjectMapper = new GameObjectMapper(tournamentDescription.getTournamentSetup());
+        playerDirectory = readPlayers();
+        playerStorage = playerDirectory.toPlayerStorage();
+        gameStorage = readGames();
+        try (InputStream is = new FileInputStream(bracket.getLevelsFile())) {
+            levelRecords = new ObjectMapper().readValue(is, new TypeReference<ArrayList<PlayoffLevelPlayersJsonRecord>>() {});
+        }
+        levelTables = buildTables();
+        levelViews = buildViews();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(bracket.getTournamentFile().toPath());
+        Files.deleteIfExists(bracket.getPlayersFile().toPath());
+        Files.deleteIfExists(bracket.getGamesFile().toPath());
+        Files.deleteIfExists(bracket.getLevelsFile().toPath());
+        Files.deleteIfExists(dir);
+    }
+
+    private SyntheticBracket createBracket(Path fixtureDir) throws IOException {
+        return SyntheticTournament.load(fixtureDir)
+                .setLevels(levels)
+                .setRoundsPerTimeControl(rounds)
+                .write(dir);
+    }
+
+    public TournamentDescription readTournamentDescription() throws IOException {
+        try (InputStream is = new FileInputStream(bracket.getTournamentFile())) {
+            return tournamentDescriptionMapper.readValue(is, TournamentDescription.class);
+        }
+    }
+
+    public PlayerDirectory readPlayers() throws IOException {
+        try (InputStream is = new FileInputStream(bracket.getPlayersFile())) {
+            return PlayerDirectory.read(is, playersMapper, tournamentDescription);
+        }
+    }
+
+    public GameStorage readGames() throws IOException {
+        StreamingGameReader reader = new StreamingGameReader(bracket.getGamesFile(), gameObjectMapper, false);
+        reader.read();
+        return new GameReadOnlyStorage(reader.getGames());
+    }
+
+    public List<PlayoffLevelTable> buildTables() {
+        List<PlayoffLevelTable> tables = new ArrayList<>(levelRecords.size());
+        for (PlayoffLevelPlayersJsonRecord record : levelRecords) {
+            tables.add(new PlayoffLevelTable(record.getLevel(), record.toPlayoffLevelPlayers(),
+                    playerStorage, gameStorage, playoffSetup, tournamentDescription));
+        }
+        return tables;
+    }
+
+    public List<PlayoffLevelTableView> buildViews() {
+        List<PlayoffLevelTableView> views = new ArrayList<>(levelTables.size());
+        for (PlayoffLevelTable table : levelTables) {
+            views.add(new PlayoffLevelTableView(locale, table, tournamentDescription, playerDirectory));
+        }
+        return views;
+    }
+}
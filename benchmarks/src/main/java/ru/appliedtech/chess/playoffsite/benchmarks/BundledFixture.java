@@ -0,0 +1,40 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// A small anonymised playoff shipped in the jar, used when no fixture directory is given:
+// eight players, quarterfinals to the final, and one match decided by an armageddon.
+public final class BundledFixture {
+    private static final String RESOURCE_DIR = "/fixture/";
+    private static final String[] FILES = {
+            SyntheticBracket.TOURNAMENT_FILE, SyntheticBracket.PLAYERS_FILE,
+            SyntheticBracket.GAMES_FILE, SyntheticBracket.LEVELS_FILE
+    };
+
+    private BundledFixture() {
+    }
+
+    // Copies the fixture into a new temporary directory, which the caller deletes.
+    public static Path extract() throws IOException {
+        Path dir = Files.createTempDirectory("playoff-site-fixture");
+        for (String file : FILES) {
+            try (InputStream is = BundledFixture.class.getResourceAsStream(RESOURCE_DIR + file)) {
+                if (is == null) {
+                    throw new IOException("Bundled fixture file is missing: " + file);
+                }
+                Files.copy(is, dir.resolve(file));
+            }
+        }
+        return dir;
+    }
+
+    public static void delete(Path dir) throws IOException {
+        for (String file : FILES) {
+            Files.deleteIfExists(dir.resolve(file));
+        }
+        Files.deleteIfExists(dir);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// The parts of a fixture that synthetic tournaments are cloned from: its tournament
+// description, its first level with both players assigned, and what describes those players.
+final class FixturePrototype {
+    private final Path fixtureDir;
+    private final ObjectNode tournament;
+    private final JsonNode level;
+    private final String player1;
+    private final String player2;
+    private final JsonNode player1Record;
+    private final JsonNode player2Record;
+    private final JsonNode games;
+
+    private FixturePrototype(Path fixtureDir, ObjectNode tournament, JsonNode level,
+                             JsonNode player1Record, JsonNode player2Record, JsonNode games) {
+        this.fixtureDir = fixtureDir;
+        this.tournament = tournament;
+        this.level = level;
+        this.player1 = level.get("player1").asText();
+        this.player2 = level.get("player2").asText();
+        this.player1Record = player1Record;
+        this.player2Record = player2Record;
+        this.games = games;
+    }
+
+    static FixturePrototype load(Path fixtureDir) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode tournament = (ObjectNode) mapper.readTree(fixtureDir.resolve(SyntheticBracket.TOURNAMENT_FILE).toFile());
+        JsonNode fixturePlayers = mapper.readTree(fixtureDir.resolve(SyntheticBracket.PLAYERS_FILE).toFile());
+        JsonNode fixtureGames = mapper.readTree(fixtureDir.resolve(SyntheticBracket.GAMES_FILE).toFile());
+        JsonNode fixtureLevels = mapper.readTree(fixtureDir.resolve(SyntheticBracket.LEVELS_FILE).toFile());
+        JsonNode prototype = null;
+        for (JsonNode level : fixtureLevels) {
+            if (level.path("player1").isTextual() && level.path("player2").isTextual()) {
+                prototype = level;
+                break;
+            }
+        }
+        if (prototype == null) {
+            throw new IOException("Fixture has no level with both players assigned: " + fixtureDir);
+        }
+        String player1 = prototype.get("player1").asText();
+        String player2 = prototype.get("player2").asText();
+        JsonNode player1Record = SyntheticBracket.findMentioning(fixturePlayers, player1);
+        JsonNode player2Record = SyntheticBracket.findMentioning(fixturePlayers, player2);
+        if (player1Record == null || player2Record == null) {
+            throw new IOException("Fixture players file does not describe " + player1 + " and " + player2);
+        }
+        return new FixturePrototype(fixtureDir, tournament, prototype, player1Record, player2Record, fixtureGames);
+    }
+
+    Path getFixtureDir() {
+        return fixtureDir;
+    }
+
+    // A copy, for the caller to fill in the players of the synthetic tournament.
+    ObjectNode copyTournament() {
+        return tournament.deepCopy();
+    }
+
+    JsonNode getLevel() {
+        return level;
+    }
+
+    String getPlayer1() {
+        return player1;
+    }
+
+    String getPlayer2() {
+        return player2;
+    }
+
+    JsonNode getPlayer1Record() {
+        return player1Record;
+    }
+
+    JsonNode getPlayer2Record() {
+        return player2Record;
+    }
+
+    // All game records of the fixture, of the prototype level's players or not.
+    JsonNode getGames() {
+        return games;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.appliedtech.chess.TournamentDescription;
+import ru.appliedtech.chess.playoffsite.players.PlayerDirectory;
+import ru.appliedtech.chess.storage.GameStorage;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputParsingBenchmark {
+    @Benchmark
+    public TournamentDescription tournamentDescription(BracketState state) throws IOException {
+        return state.readTournamentDescription();
+    }
+
+    @Benchmark
+    public PlayerDirectory players(BracketState state) throws IOException {
+        return state.readPlayers();
+    }
+
+    @Benchmark
+    public GameStorage games(BracketState state) throws IOException {
+        return state.readGames();
+    }
+}
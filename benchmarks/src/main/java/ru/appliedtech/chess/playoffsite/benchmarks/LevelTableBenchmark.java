@@ -0,0 +1,25 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.appliedtech.chess.playoff.PlayoffLevelTable;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelTableView;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelTableBenchmark {
+    @Benchmark
+    public List<PlayoffLevelTable> levelTables(BracketState state) {
+        return state.buildTables();
+    }
+
+    @Benchmark
+    public List<PlayoffLevelTableView> levelViews(BracketState state) {
+        return state.buildViews();
+    }
+}
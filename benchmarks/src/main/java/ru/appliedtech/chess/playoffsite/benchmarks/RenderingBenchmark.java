@@ -0,0 +1,65 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import freemarker.template.TemplateException;
+import org.openjdk.jmh.annotations.*;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelTableView;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelViewDirectRenderingEngine;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelViewHtmlRenderingEngine;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelViewRenderingEngine;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderingBenchmark {
+    @Param({"freemarker", "direct"})
+    public String engine;
+
+    private PlayoffLevelViewRenderingEngine renderingEngine;
+    private Map<String, Object> indexModel;
+
+    @Setup(Level.Trial)
+    public void setUp(BracketState state) throws IOException {
+        renderingEngine = "direct".equals(engine)
+                ? new PlayoffLevelViewDirectRenderingEngine()
+                : new PlayoffLevelViewHtmlRenderingEngine(state.configuration);
+        List<String> matches = new ArrayList<>();
+        for (PlayoffLevelTableView view : state.levelViews) {
+            StringWriter writer = new StringWriter();
+            renderingEngine.render(view, writer);
+            matches.add(writer.toString());
+        }
+        Map<String, String> tournamentDescription = new HashMap<>();
+        tournamentDescription.put("tournamentTitle", state.tournamentDescription.getTournamentTitle());
+        indexModel = new HashMap<>();
+        indexModel.put("matches", matches);
+        indexModel.put("tournamentDescription", tournamentDescription);
+    }
+
+    @Benchmark
+    public Writer fragments(BracketState state) throws IOException {
+        StringWriter writer = new StringWriter();
+        for (PlayoffLevelTableView view : state.levelViews) {
+            renderingEngine.render(view, writer);
+        }
+        return writer;
+    }
+
+    @Benchmark
+    public Writer index(BracketState state) throws IOException, TemplateException {
+        StringWriter writer = new StringWriter();
+        state.configuration.getTemplate("index.ftl").process(indexModel, writer);
+        return writer;
+    }
+}
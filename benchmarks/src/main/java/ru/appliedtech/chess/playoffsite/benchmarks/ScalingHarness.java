@@ -0,0 +1,267 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteOptions;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Runs the whole generator on synthetic tournaments of growing size, each in a JVM of its own
+// with a fixed heap ceiling, and fails when a run runs out of that heap, peaks above the memory
+// budget, or takes disproportionately longer than the previous size.
+//
+// Usage: ScalingHarness [<fixture dir>] [--sizes=100,1000,...] [--xmx=1g] [--budget=768m]
+//        [--tolerance=1.5] [--rounds=N] [--armageddon-every=N] [--work=<dir>] [generator options]
+// Without a fixture directory the fixture bundled with the benchmarks is used.
+public class ScalingHarness {
+    private static final String CHILD = "--child";
+    private static final String RESULT = "RESULT ";
+    // Below this the wall time is mostly JIT warm-up and not worth comparing.
+    private static final long MIN_COMPARED_MILLIS = 500;
+
+    private List<Integer> sizes = Arrays.asList(100, 1_000, 10_000, 100_000, 1_000_000);
+    private String xmx = "1g";
+    private long budgetBytes = -1;
+    private double tolerance = 1.5;
+    private int rounds = 2;
+    private int armageddonEvery = 4;
+    private Path workDir;
+    private final List<String> generatorOptions = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(CHILD)) {
+            runChild(args);
+            return;
+        }
+        boolean bundled = args.length == 0 || args[0].startsWith("--");
+        ScalingHarness harness = new ScalingHarness();
+        for (int i = bundled ? 0 : 1; i < args.length; i++) {
+            harness.apply(args[i]);
+        }
+        boolean passed;
+        if (bundled) {
+            Path fixtureDir = BundledFixture.extract();
+            try {
+                passed = harness.run(fixtureDir);
+            } finally {
+                BundledFixture.delete(fixtureDir);
+            }
+        } else {
+            passed = harness.run(Paths.get(args[0]));
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private void apply(String arg) {
+        String[] option = arg.split("=", 2);
+        String value = option.length > 1 ? option[1] : null;
+        switch (option[0]) {
+            case "--sizes":
+                sizes = new ArrayList<>();
+                for (String size : value.split(",")) {
+                    sizes.add(Integer.parseInt(size.trim()));
+                }
+                break;
+            case "--xmx":
+                xmx = value;
+                break;
+            case "--budget":
+                budgetBytes = parseBytes(value);
+                break;
+            case "--tolerance":
+                tolerance = Double.parseDouble(value);
+                break;
+            case "--rounds":
+                rounds = Integer.parseInt(value);
+                break;
+            case "--armageddon-every":
+                armageddonEvery = Integer.parseInt(value);
+                break;
+            case "--work":
+                workDir = Paths.get(value);
+                break;
+            default:
+                // Everything else is an option of the generator itself, e.g. --threads=auto.
+                generatorOptions.add(arg);
+        }
+    }
+
+    private boolean run(Path fixtureDir) throws IOException, InterruptedException {
+        long budget = budgetBytes > 0 ? budgetBytes : parseBytes(xmx);
+        Path dir = workDir != null ? Files.createDirectories(workDir) : Files.createTempDirectory("playoff-site-scaling");
+        SyntheticTournament tournament = SyntheticTournament.load(fixtureDir)
+                .setRoundsPerTimeControl(rounds)
+                .setArmageddonEvery(armageddonEvery);
+        if (tournament.getGamesPerLevel() == 0) {
+            throw new IOException("Fixture level has no games to clone: " + fixtureDir);
+        }
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode report = mapper.createObjectNode();
+        report.put("xmx", xmx);
+        report.put("budgetBytes", budget);
+        ArrayNode runs = report.putArray("runs");
+        List<String> failures = new ArrayList<>();
+        Result previous = null;
+        System.out.printf("%10s %10s %10s %14s %14s%n", "games", "levels", "millis", "peak heap", "output");
+        for (int size : sizes) {
+            int levels = Math.max(1, size / tournament.getGamesPerLevel());
+            Path sizeDir = dir.resolve(String.valueOf(size));
+            SyntheticBracket bracket = tournament.setLevels(levels).write(sizeDir.resolve("input"));
+            Path outputDir = sizeDir.resolve("output");
+            Result result = runChild(bracket, outputDir, dir.resolve(size + ".log").toFile());
+            result.games = bracket.getGames();
+            result.levels = levels;
+            result.outputBytes = Files.exists(outputDir) ? sizeOf(outputDir) : 0;
+            deleteRecursively(sizeDir);
+
+            ObjectNode run = runs.addObject();
+            run.put("games", result.games);
+            run.put("levels", result.levels);
+            run.put("exitCode", result.exitCode);
+            run.put("millis", result.millis);
+            run.put("peakHeapBytes", result.peakHeapBytes);
+            run.put("outputBytes", result.outputBytes);
+            System.out.printf("%10d %10d %10d %14d %14d%n",
+                    result.games, result.levels, result.millis, result.peakHeapBytes, result.outputBytes);
+
+            if (result.exitCode != 0) {
+                failures.add(result.games + " games: generator failed with exit code " + result.exitCode
+                        + " under -Xmx" + xmx + ", see " + result.log);
+                break;
+            }
+            if (result.peakHeapBytes > budget) {
+                failures.add(result.games + " games: peak heap " + result.peakHeapBytes + " exceeds budget " + budget);
+            }
+            if (previous != null && previous.millis >= MIN_COMPARED_MILLIS) {
+                double growth = (double) result.games / previous.games;
+                double slowdown = (double) result.millis / previous.millis;
+                if (slowdown > growth * tolerance) {
+                    failures.add(String.format("%d -> %d games: %.1fx slower for %.1fx the games",
+                            previous.games, result.games, slowdown, growth));
+                }
+            }
+            previous = result;
+        }
+        ArrayNode failureNodes = report.putArray("failures");
+        failures.forEach(failureNodes::add);
+        Path reportFile = dir.resolve("scaling-report.json");
+        mapper.writeValue(reportFile.toFile(), report);
+        for (String failure : failures) {
+            System.out.println("FAILED: " + failure);
+        }
+        System.out.println("Report: " + reportFile);
+        return failures.isEmpty();
+    }
+
+    private Result runChild(SyntheticBracket bracket, Path outputDir, File log) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + xmx);
+        command.add("-XX:+ExitOnOutOfMemoryError");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ScalingHarness.class.getName());
+        command.add(CHILD);
+        command.add(bracket.getTournamentFile().getPath());
+        command.add(bracket.getPlayersFile().getPath());
+        command.add(bracket.getGamesFile().getPath());
+        command.add(bracket.getLevelsFile().getPath());
+        command.add(outputDir.toString());
+        command.addAll(generatorOptions);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        Result result = new Result();
+        result.exitCode = process.waitFor();
+        result.log = log;
+        for (String line : Files.readAllLines(log.toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith(RESULT)) {
+                String[] values = line.substring(RESULT.length()).split(" ");
+                result.millis = Long.parseLong(values[0]);
+                result.peakHeapBytes = Long.parseLong(values[1]);
+            }
+        }
+        if (result.exitCode == 0) {
+            Files.delete(log.toPath());
+        }
+        return result;
+    }
+
+    private static void runChild(String[] args) throws Exception {
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+                pool.resetPeakUsage();
+            }
+        }
+        PlayoffSiteOptions options = PlayoffSiteOptions.parse(args, 6);
+        long start = System.nanoTime();
+        new PlayoffSiteGenerator(options).run("en_US", args[1], args[2], args[3], args[4], args[5]);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        // The sum of per-pool peaks can exceed the true peak, never fall short of it.
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+        System.out.println(RESULT + millis + " " + peakHeapBytes);
+    }
+
+    private static long parseBytes(String value) {
+        String size = value.trim().toLowerCase();
+        char unit = size.charAt(size.length() - 1);
+        long multiplier = unit == 'k' ? 1L << 10 : unit == 'm' ? 1L << 20 : unit == 'g' ? 1L << 30 : 1;
+        return Long.parseLong(multiplier == 1 ? size : size.substring(0, size.length() - 1)) * multiplier;
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        long[] size = new long[1];
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                size[0] += attributes.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                Files.delete(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static final class Result {
+        private int games;
+        private int levels;
+        private int exitCode;
+        private long millis;
+        private long peakHeapBytes;
+        private long outputBytes;
+        private File log;
+    }
+}
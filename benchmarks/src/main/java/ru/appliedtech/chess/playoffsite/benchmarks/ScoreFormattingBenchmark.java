@@ -0,0 +1,48 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.appliedtech.chess.playoffsite.model.QuarterPoints;
+import ru.appliedtech.chess.playoffsite.model.ScoreCellView;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreFormattingBenchmark {
+    private BigDecimal[] scores;
+    private int[] quarters;
+
+    @Setup
+    public void setUp() {
+        scores = new BigDecimal[4 * 13];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = BigDecimal.valueOf(i).divide(BigDecimal.valueOf(4));
+        }
+        quarters = new int[scores.length];
+        for (int i = 0; i < quarters.length; i++) {
+            quarters[i] = i;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4 * 13)
+    public void scoreToString(Blackhole blackhole) {
+        for (BigDecimal score : scores) {
+            blackhole.consume(ScoreCellView.scoreToString(score));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4 * 13)
+    public void quartersToString(Blackhole blackhole) {
+        for (int score : quarters) {
+            blackhole.consume(QuarterPoints.toString(score));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+public class SyntheticBracket {
+    public static final String TOURNAMENT_FILE = "tournament.json";
+    public static final String PLAYERS_FILE = "players.json";
+    public static final String GAMES_FILE = "games.json";
+    public static final String LEVELS_FILE = "levels.json";
+
+    private final File tournamentFile;
+    private final File playersFile;
+    private final File gamesFile;
+    private final File levelsFile;
+    private final int levels;
+    private final int games;
+
+    SyntheticBracket(Path dir, int levels, int games) {
+        this.tournamentFile = dir.resolve(TOURNAMENT_FILE).toFile();
+        this.playersFile = dir.resolve(PLAYERS_FILE).toFile();
+        this.gamesFile = dir.resolve(GAMES_FILE).toFile();
+        this.levelsFile = dir.resolve(LEVELS_FILE).toFile();
+        this.levels = levels;
+        this.games = games;
+    }
+
+    // The layouts of the tournament setup and of game records belong to the chess libraries,
+    // so the fixture's first fully assigned level is cloned instead: its players and games
+    // get new ids, substituted wherever the original ids appear as textual values.
+    public static SyntheticBracket create(Path fixtureDir, Path targetDir, int levels, int gamesPerLevel) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        FixturePrototype prototype = FixturePrototype.load(fixtureDir);
+        ObjectNode tournament = prototype.copyTournament();
+        String player1 = prototype.getPlayer1();
+        String player2 = prototype.getPlayer2();
+        List<JsonNode> prototypeGames = new ArrayList<>();
+        for (JsonNode game : prototype.getGames()) {
+            if (mentions(game, player1) || mentions(game, player2)) {
+                prototypeGames.add(game);
+            }
+        }
+
+        ArrayNode players = mapper.createArrayNode();
+        ArrayNode games = mapper.createArrayNode();
+        ArrayNode levelRecords = mapper.createArrayNode();
+        ArrayNode registeredPlayers = tournament.putArray("players");
+        int gameCount = 0;
+        for (int i = 0; i < levels; i++) {
+            Map<String, String> ids = new HashMap<>();
+            ids.put(player1, player1 + "-s" + i);
+            ids.put(player2, player2 + "-s" + i);
+            players.add(substitute(prototype.getPlayer1Record(), ids));
+            players.add(substitute(prototype.getPlayer2Record(), ids));
+            registeredPlayers.add(ids.get(player1));
+            registeredPlayers.add(ids.get(player2));
+            for (int g = 0; g < gamesPerLevel && !prototypeGames.isEmpty(); g++) {
+                games.add(substitute(prototypeGames.get(g % prototypeGames.size()), ids));
+                gameCount++;
+            }
+            ObjectNode levelRecord = levelRecords.addObject();
+            levelRecord.set("level", prototype.getLevel().get("level"));
+            levelRecord.put("player1", ids.get(player1));
+            levelRecord.put("player2", ids.get(player2));
+        }
+        tournament.putArray("joinedPlayers");
+
+        SyntheticBracket bracket = new SyntheticBracket(targetDir, levels, gameCount);
+        mapper.writeValue(bracket.tournamentFile, tournament);
+        mapper.writeValue(bracket.playersFile, players);
+        mapper.writeValue(bracket.gamesFile, games);
+        mapper.writeValue(bracket.levelsFile, levelRecords);
+        return bracket;
+    }
+
+    static JsonNode findMentioning(JsonNode array, String id) {
+        for (JsonNode node : array) {
+            if (mentions(node, id)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    static boolean mentions(JsonNode node, String id) {
+        if (node.isTextual()) {
+            return node.asText().equals(id);
+        }
+        for (JsonNode child : node) {
+            if (mentions(child, id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static JsonNode substitute(JsonNode node, Map<String, String> ids) {
+        if (node.isTextual()) {
+            String replacement = ids.get(node.asText());
+            return replacement != null ? TextNode.valueOf(replacement) : node;
+        }
+        if (node.isObject()) {
+            ObjectNode result = ((ObjectNode) node).objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                result.set(field.getKey(), substitute(field.getValue(), ids));
+            }
+            return result;
+        }
+        if (node.isArray()) {
+            ArrayNode result = ((ArrayNode) node).arrayNode();
+            for (JsonNode child : node) {
+                result.add(substitute(child, ids));
+            }
+            return result;
+        }
+        return node;
+    }
+
+    public File getTournamentFile() {
+        return tournamentFile;
+    }
+
+    public File getPlayersFile() {
+        return playersFile;
+    }
+
+    public File getGamesFile() {
+        return gamesFile;
+    }
+
+    public File getLevelsFile() {
+        return levelsFile;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    public int getGames() {
+        return games;
+    }
+}
@@ -0,0 +1,218 @@
+package ru.appliedtech.chess.playoffsite.benchmarks;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import ru.appliedtech.chess.*;
+import ru.appliedtech.chess.playoff.PlayoffLevel;
+import ru.appliedtech.chess.playoff.PlayoffLevelPlayers;
+import ru.appliedtech.chess.playoff.PlayoffLevelTable;
+import ru.appliedtech.chess.playoff.PlayoffSetup;
+import ru.appliedtech.chess.playoff.io.PlayoffSetupObjectNodeReader;
+import ru.appliedtech.chess.playoffsite.players.PlayerDirectory;
+import ru.appliedtech.chess.storage.GameReadOnlyStorage;
+import ru.appliedtech.chess.storage.PlayerStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+
+// Generates tournaments of any size from a small real one, like SyntheticBracket, but shaped
+// by player count, rounds per time control and armageddon frequency. The fixture's games are
+// sorted into time controls by the playoff library itself: each one is put alone into a level
+// table, which then reports it under its time control or as the armageddon.
+public class SyntheticTournament {
+    private static final String ARMAGEDDON = "armageddon";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final FixturePrototype prototype;
+    private final Map<String, List<JsonNode>> prototypeGames;
+    private int levels = 8;
+    private int players;
+    private int roundsPerTimeControl = 2;
+    private int armageddonEvery;
+
+    private SyntheticTournament(Path fixtureDir) throws IOException {
+        prototype = FixturePrototype.load(fixtureDir);
+        prototypeGames = classifyGames();
+    }
+
+    public static SyntheticTournament load(Path fixtureDir) throws IOException {
+        return new SyntheticTournament(fixtureDir);
+    }
+
+    private Map<String, List<JsonNode>> classifyGames() throws IOException {
+        Path fixtureDir = prototype.getFixtureDir();
+        Map<String, TournamentSetupObjectNodeReader> tournamentSetupReaders = new HashMap<>();
+        tournamentSetupReaders.put("playoff", new PlayoffSetupObjectNodeReader());
+        TournamentDescription tournamentDescription = new ChessBaseObjectMapper(tournamentSetupReaders)
+                .readValue(fixtureDir.resolve(SyntheticBracket.TOURNAMENT_FILE).toFile(), TournamentDescription.class);
+        PlayerStorage playerStorage;
+        try (InputStream is = Files.newInputStream(fixtureDir.resolve(SyntheticBracket.PLAYERS_FILE))) {
+            playerStorage = PlayerDirectory.read(is, new ChessBaseObjectMapper(emptyMap()), tournamentDescription)
+                    .toPlayerStorage();
+        }
+        GameObjectMapper gameObjectMapper = new GameObjectMapper(tournamentDescription.getTournamentSetup());
+        PlayoffSetup playoffSetup = (PlayoffSetup) tournamentDescription.getTournamentSetup();
+        String player1 = prototype.getPlayer1();
+        String player2 = prototype.getPlayer2();
+        PlayoffLevel level = PlayoffLevel.valueOf(prototype.getLevel().get("level").asText());
+        PlayoffLevelPlayers levelPlayers = new PlayoffLevelPlayers(level, player1, player2);
+
+        Map<String, List<JsonNode>> games = new LinkedHashMap<>();
+        for (TimeControlType timeControlType : TimeControlType.values()) {
+            games.put(timeControlType.name(), new ArrayList<>());
+        }
+        games.put(ARMAGEDDON, new ArrayList<>());
+        for (JsonNode record : prototype.getGames()) {
+            if (!SyntheticBracket.mentions(record, player1) || !SyntheticBracket.mentions(record, player2)) {
+                continue;
+            }
+            Game game = gameObjectMapper.treeToValue(record, Game.class);
+            PlayoffLevelTable table = new PlayoffLevelTable(level, levelPlayers, playerStorage,
+                    new GameReadOnlyStorage(singletonList(game)), playoffSetup, tournamentDescription);
+            for (TimeControlType timeControlType : TimeControlType.values()) {
+                if (!table.getGameScores(player1, timeControlType).isEmpty()) {
+                    games.get(timeControlType.name()).add(record);
+                }
+            }
+            if (table.getArmageddonScore(player1).isPresent()) {
+                games.get(ARMAGEDDON).add(record);
+            }
+        }
+        return games;
+    }
+
+    public SyntheticTournament setLevels(int levels) {
+        this.levels = levels;
+        return this;
+    }
+
+    // Players beyond the two of every level are registered without playing; zero means two per level.
+    public SyntheticTournament setPlayers(int players) {
+        this.players = players;
+        return this;
+    }
+
+    // Rounds beyond those the fixture's tournament setup describes are generated but not shown.
+    public SyntheticTournament setRoundsPerTimeControl(int roundsPerTimeControl) {
+        this.roundsPerTimeControl = roundsPerTimeControl;
+        return this;
+    }
+
+    // Every n-th level ends with an armageddon; zero means none does.
+    public SyntheticTournament setArmageddonEvery(int armageddonEvery) {
+        this.armageddonEvery = armageddonEvery;
+        return this;
+    }
+
+    // Games of a level without its armageddon; time controls the fixture has no games of get none.
+    public int getGamesPerLevel() {
+        int games = 0;
+        for (TimeControlType timeControlType : TimeControlType.values()) {
+            if (!prototypeGames.get(timeControlType.name()).isEmpty()) {
+                games += roundsPerTimeControl;
+            }
+        }
+        return games;
+    }
+
+    public SyntheticBracket write(Path targetDir) throws IOException {
+        if (players != 0 && players < 2 * levels) {
+            throw new IllegalArgumentException(levels + " levels need at least " + 2 * levels + " players");
+        }
+        Files.createDirectories(targetDir);
+        SyntheticBracket bracket = new SyntheticBracket(targetDir, levels, 0);
+        ObjectNode description = prototype.copyTournament();
+        String player1 = prototype.getPlayer1();
+        String player2 = prototype.getPlayer2();
+        ArrayNode registeredPlayers = description.putArray("players");
+        ArrayNode levelRecords = mapper.createArrayNode();
+        int gameCount = 0;
+        // Players and games are streamed, so the largest tournaments are never held in memory.
+        try (JsonGenerator playersOut = mapper.getFactory().createGenerator(bracket.getPlayersFile(), JsonEncoding.UTF8);
+             JsonGenerator gamesOut = mapper.getFactory().createGenerator(bracket.getGamesFile(), JsonEncoding.UTF8)) {
+            playersOut.writeStartArray();
+            gamesOut.writeStartArray();
+            for (int i = 0; i < levels; i++) {
+                Map<String, String> ids = new HashMap<>();
+                ids.put(player1, player1 + "-s" + i);
+                ids.put(player2, player2 + "-s" + i);
+                mapper.writeTree(playersOut, SyntheticBracket.substitute(prototype.getPlayer1Record(), ids));
+                mapper.writeTree(playersOut, SyntheticBracket.substitute(prototype.getPlayer2Record(), ids));
+                registeredPlayers.add(ids.get(player1));
+                registeredPlayers.add(ids.get(player2));
+                for (TimeControlType timeControlType : TimeControlType.values()) {
+                    List<JsonNode> games = prototypeGames.get(timeControlType.name());
+                    for (int round = 0; round < roundsPerTimeControl && !games.isEmpty(); round++) {
+                        mapper.writeTree(gamesOut, SyntheticBracket.substitute(games.get(round % games.size()), ids));
+                        gameCount++;
+                    }
+                }
+                List<JsonNode> armageddons = prototypeGames.get(ARMAGEDDON);
+                if (armageddonEvery > 0 && i % armageddonEvery == armageddonEvery - 1 && !armageddons.isEmpty()) {
+                    mapper.writeTree(gamesOut, SyntheticBracket.substitute(armageddons.get(0), ids));
+                    gameCount++;
+                }
+                ObjectNode levelRecord = levelRecords.addObject();
+                levelRecord.set("level", prototype.getLevel().get("level"));
+                levelRecord.put("player1", ids.get(player1));
+                levelRecord.put("player2", ids.get(player2));
+            }
+            for (int i = 2 * levels; i < players; i++) {
+                Map<String, String> ids = new HashMap<>();
+                ids.put(player1, player1 + "-x" + i);
+                mapper.writeTree(playersOut, SyntheticBracket.substitute(prototype.getPlayer1Record(), ids));
+                registeredPlayers.add(ids.get(player1));
+            }
+            playersOut.writeEndArray();
+            gamesOut.writeEndArray();
+        }
+        description.putArray("joinedPlayers");
+        mapper.writeValue(bracket.getTournamentFile(), description);
+        mapper.writeValue(bracket.getLevelsFile(), levelRecords);
+        return new SyntheticBracket(targetDir, levels, gameCount);
+    }
+
+    // Usage: SyntheticTournament <fixture dir> <target dir> [--levels=N] [--players=N]
+    //        [--rounds=N] [--armageddon-every=N]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticTournament <fixture dir> <target dir> [--levels=N] [--players=N]"
+                    + " [--rounds=N] [--armageddon-every=N]");
+            System.exit(2);
+        }
+        SyntheticTournament tournament = load(Paths.get(args[0]));
+        for (int i = 2; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            int value = Integer.parseInt(option.length > 1 ? option[1] : "");
+            switch (option[0]) {
+                case "--levels":
+                    tournament.setLevels(value);
+                    break;
+                case "--players":
+                    tournament.setPlayers(value);
+                    break;
+                case "--rounds":
+                    tournament.setRoundsPerTimeControl(value);
+                    break;
+                case "--armageddon-every":
+                    tournament.setArmageddonEvery(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+        SyntheticBracket bracket = tournament.write(Paths.get(args[1]));
+        System.out.println(bracket.getLevels() + " levels, " + bracket.getGames() + " games");
+    }
+}
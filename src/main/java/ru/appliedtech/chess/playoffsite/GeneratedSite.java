@@ -0,0 +1,39 @@
+package ru.appliedtech.chess.playoffsite;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+public class GeneratedSite {
+    private final byte[] index;
+    private final List<String> fragments;
+    private final Map<String, byte[]> pages;
+
+    public GeneratedSite(byte[] index, List<String> fragments) {
+        this(index, fragments, emptyMap());
+    }
+
+    // Pages are keyed by their path relative to the site root, e.g. those of sharded output.
+    public GeneratedSite(byte[] index, List<String> fragments, Map<String, byte[]> pages) {
+        this.index = index;
+        this.fragments = unmodifiableList(new ArrayList<>(fragments));
+        this.pages = unmodifiableMap(new LinkedHashMap<>(pages));
+    }
+
+    public byte[] getIndex() {
+        return index;
+    }
+
+    public List<String> getFragments() {
+        return fragments;
+    }
+
+    public Map<String, byte[]> getPages() {
+        return pages;
+    }
+}
@@ -0,0 +1,5 @@
+package ru.appliedtech.chess.playoffsite;
+
+public interface GeneratedSiteListener {
+    void siteGenerated(GeneratedSite site);
+}
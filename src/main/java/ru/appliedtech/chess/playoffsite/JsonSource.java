@@ -0,0 +1,53 @@
+package ru.appliedtech.chess.playoffsite;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.appliedtech.chess.playoffsite.snapshot.InputSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+// An input file loaded ahead of parsing: either its raw bytes or, with a snapshot,
+// its parsed tree.
+final class JsonSource {
+    private final byte[] content;
+    private final JsonNode tree;
+    private byte[] hash;
+
+    private JsonSource(byte[] content, JsonNode tree, byte[] hash) {
+        this.content = content;
+        this.tree = tree;
+        this.hash = hash;
+    }
+
+    static JsonSource load(String filePath, String name, ObjectMapper mapper, InputSnapshot snapshot) throws IOException {
+        File file = new File(filePath);
+        if (snapshot == null) {
+            return new JsonSource(Files.readAllBytes(file.toPath()), null, null);
+        }
+        InputSnapshot.Entry entry = snapshot.lookup(name, file);
+        if (entry != null) {
+            return new JsonSource(null, entry.getTree(), entry.getHash());
+        }
+        InputSnapshot.Content content = InputSnapshot.Content.read(file);
+        JsonNode tree = mapper.readTree(content.getBytes());
+        snapshot.put(name, file, content, tree, 0, 0);
+        return new JsonSource(null, tree, content.getHash());
+    }
+
+    // SHA-256 of the bytes the source was parsed from, not of what the file holds by now.
+    synchronized byte[] getHash() {
+        if (hash == null) {
+            hash = Digests.sha256().digest(content);
+        }
+        return hash;
+    }
+
+    <T> T read(ObjectMapper mapper, JavaType type) throws IOException {
+        return tree != null
+                ? mapper.readValue(mapper.treeAsTokens(tree), type)
+                : mapper.readValue(content, type);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.appliedtech.chess.playoffsite;
+
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateSequenceModel;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator.PlayoffLevelPlayersJsonRecord;
+
+import java.io.IOException;
+import java.util.List;
+
+public class LazyLevelSequence implements TemplateSequenceModel {
+    private final LevelFragmentRenderer levelRenderer;
+    private final List<PlayoffLevelPlayersJsonRecord> playoffLevelPlayers;
+
+    public LazyLevelSequence(LevelFragmentRenderer levelRenderer,
+                             List<PlayoffLevelPlayersJsonRecord> playoffLevelPlayers) {
+        this.levelRenderer = levelRenderer;
+        this.playoffLevelPlayers = playoffLevelPlayers;
+    }
+
+    @Override
+    public TemplateModel get(int index) throws TemplateModelException {
+        // Each level is rendered only when the template reaches it and becomes
+        // garbage once written, so at most one fragment is held at a time.
+        try {
+            return new SimpleScalar(levelRenderer.render(index, playoffLevelPlayers.get(index)));
+        } catch (IOException e) {
+            throw new TemplateModelException(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return playoffLevelPlayers.size();
+    }
+}
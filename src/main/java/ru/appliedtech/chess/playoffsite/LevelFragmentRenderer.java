@@ -0,0 +1,86 @@
+package ru.appliedtech.chess.playoffsite;
+
+import ru.appliedtech.chess.playoff.PlayoffLevelTable;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator.PlayoffLevelPlayersJsonRecord;
+import ru.appliedtech.chess.playoffsite.incremental.LevelFragmentCache;
+import ru.appliedtech.chess.playoffsite.incremental.LevelInputsDigest;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelTableView;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelViewRenderingEngine;
+import ru.appliedtech.chess.playoffsite.metrics.RunMetrics;
+import ru.appliedtech.chess.playoffsite.metrics.Stage;
+import ru.appliedtech.chess.playoffsite.players.PlayerDirectory;
+import ru.appliedtech.chess.playoffsite.rating.LevelRatings;
+import ru.appliedtech.chess.playoffsite.rating.RatingTracker;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Locale;
+
+public class LevelFragmentRenderer {
+    private final PlayoffLevelViewRenderingEngine renderingEngine;
+    private final Locale locale;
+    private final LevelTables levelTables;
+    private final PlayerDirectory playerDirectory;
+    private final LevelFragmentCache fragmentCache;
+    private final LevelInputsDigest levelInputsDigest;
+    private final RunMetrics metrics;
+    private final LevelViewListener viewListener;
+    private final RatingTracker ratingTracker;
+
+    public LevelFragmentRenderer(PlayoffLevelViewRenderingEngine renderingEngine,
+                                 Locale locale,
+                                 LevelTables levelTables,
+                                 PlayerDirectory playerDirectory,
+                                 LevelFragmentCache fragmentCache,
+                                 LevelInputsDigest levelInputsDigest,
+                                 RunMetrics metrics,
+                                 LevelViewListener viewListener,
+                                 RatingTracker ratingTracker) {
+        this.renderingEngine = renderingEngine;
+        this.locale = locale;
+        this.levelTables = levelTables;
+        this.playerDirectory = playerDirectory;
+        this.fragmentCache = fragmentCache;
+        this.levelInputsDigest = levelInputsDigest;
+        this.metrics = metrics;
+        this.viewListener = viewListener;
+        this.ratingTracker = ratingTracker;
+    }
+
+    public String render(int index, PlayoffLevelPlayersJsonRecord record) throws IOException {
+        String hash = null;
+        LevelRatings levelRatings = ratingTracker != null ? ratingTracker.get(index) : null;
+        if (fragmentCache != null) {
+            hash = levelInputsDigest.digest(record.getLevel(), record.getPlayer1(), record.getPlayer2(), playerDirectory);
+            if (levelRatings != null) {
+                // Ratings move with games of other levels, which the digest does not cover.
+                hash += ":" + levelRatings.fingerprint(record.getPlayer1(), record.getPlayer2());
+            }
+            String fragment = fragmentCache.lookup(index, hash);
+            if (fragment != null) {
+                metrics.count("cachedFragments", 1);
+                return fragment;
+            }
+        }
+        PlayoffLevelTable playoffLevelTable = levelTables.get(index);
+        String subject = index + ":" + locale;
+        PlayoffLevelTableView view;
+        try (RunMetrics.StageTimer ignored = metrics.start(Stage.VIEW_BUILD, subject)) {
+            view = new PlayoffLevelTableView(
+                    locale, playoffLevelTable, levelTables.getTournamentDescription(), playerDirectory, levelRatings);
+        }
+        if (viewListener != null) {
+            viewListener.viewBuilt(index, view);
+        }
+        try (StringWriter writer = new StringWriter()) {
+            try (RunMetrics.StageTimer ignored = metrics.start(Stage.LEVEL_RENDER, subject)) {
+                renderingEngine.render(view, writer);
+            }
+            String fragment = writer.toString();
+            if (fragmentCache != null) {
+                fragmentCache.store(index, String.valueOf(record.getLevel()), hash, fragment);
+            }
+            return fragment;
+        }
+    }
+}
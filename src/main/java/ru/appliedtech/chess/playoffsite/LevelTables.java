@@ -0,0 +1,77 @@
+package ru.appliedtech.chess.playoffsite;
+
+import ru.appliedtech.chess.TournamentDescription;
+import ru.appliedtech.chess.playoff.PlayoffLevelPlayers;
+import ru.appliedtech.chess.playoff.PlayoffLevelTable;
+import ru.appliedtech.chess.playoff.PlayoffSetup;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator.PlayoffLevelPlayersJsonRecord;
+import ru.appliedtech.chess.playoffsite.games.GamePartitions;
+import ru.appliedtech.chess.playoffsite.metrics.RunMetrics;
+import ru.appliedtech.chess.playoffsite.metrics.Stage;
+import ru.appliedtech.chess.storage.GameStorage;
+import ru.appliedtech.chess.storage.PlayerStorage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class LevelTables {
+    private final TournamentDescription tournamentDescription;
+    private final PlayoffSetup playoffSetup;
+    private final PlayerStorage playerStorage;
+    private final GameStorage gameStorage;
+    private final List<PlayoffLevelPlayersJsonRecord> playoffLevelPlayers;
+    private final AtomicReferenceArray<PlayoffLevelTable> tables;
+    private final RunMetrics metrics;
+    private final GamePartitions gamePartitions;
+
+    public LevelTables(TournamentDescription tournamentDescription,
+                       PlayerStorage playerStorage,
+                       GameStorage gameStorage,
+                       List<PlayoffLevelPlayersJsonRecord> playoffLevelPlayers,
+                       RunMetrics metrics,
+                       GamePartitions gamePartitions) {
+        this.tournamentDescription = tournamentDescription;
+        this.playoffSetup = (PlayoffSetup) tournamentDescription.getTournamentSetup();
+        this.playerStorage = playerStorage;
+        this.gameStorage = gameStorage;
+        this.playoffLevelPlayers = playoffLevelPlayers;
+        this.tables = new AtomicReferenceArray<>(playoffLevelPlayers.size());
+        this.metrics = metrics;
+        this.gamePartitions = gamePartitions;
+    }
+
+    // A table is built the first time any locale needs it and then shared by all of them;
+    // levels served from the fragment cache in every locale are never built at all.
+    public PlayoffLevelTable get(int index) {
+        PlayoffLevelTable table = tables.get(index);
+        if (table == null) {
+            PlayoffLevelPlayersJsonRecord record = playoffLevelPlayers.get(index);
+            PlayoffLevelPlayers levelPlayers = record.toPlayoffLevelPlayers();
+            GameStorage levelGameStorage = gamePartitions != null
+                    ? gamePartitions.storageFor(record.getPlayer1(), record.getPlayer2())
+                    : gameStorage;
+            try (RunMetrics.StageTimer ignored = metrics.start(Stage.TABLE_BUILD, String.valueOf(index))) {
+                table = new PlayoffLevelTable(
+                        levelPlayers.getLevel(), levelPlayers, playerStorage,
+                        levelGameStorage,
+                        playoffSetup, tournamentDescription);
+            }
+            if (!tables.compareAndSet(index, null, table)) {
+                table = tables.get(index);
+            }
+        }
+        return table;
+    }
+
+    public TournamentDescription getTournamentDescription() {
+        return tournamentDescription;
+    }
+
+    public List<PlayoffLevelPlayersJsonRecord> getPlayoffLevelPlayers() {
+        return playoffLevelPlayers;
+    }
+
+    public int size() {
+        return playoffLevelPlayers.size();
+    }
+}
@@ -0,0 +1,7 @@
+package ru.appliedtech.chess.playoffsite;
+
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelTableView;
+
+public interface LevelViewListener {
+    void viewBuilt(int index, PlayoffLevelTableView view);
+}
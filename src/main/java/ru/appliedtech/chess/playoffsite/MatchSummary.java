@@ -0,0 +1,66 @@
+package ru.appliedtech.chess.playoffsite;
+
+import ru.appliedtech.chess.Player;
+import ru.appliedtech.chess.playoff.MatchScore;
+import ru.appliedtech.chess.playoff.PlayoffLevelTable;
+import ru.appliedtech.chess.playoffsite.players.PlayerDirectory;
+
+import static ru.appliedtech.chess.playoffsite.model.ScoreCellView.scoreToString;
+
+public class MatchSummary {
+    private final String player1;
+    private final String player2;
+    private final String score1;
+    private final String score2;
+    private final int winner;
+
+    public MatchSummary(String player1, String player2, String score1, String score2, int winner) {
+        this.player1 = player1;
+        this.player2 = player2;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.winner = winner;
+    }
+
+    // Built from the level table rather than from its view, so levels served from the
+    // fragment cache are summarized without building their views.
+    public static MatchSummary of(PlayoffLevelTable playoffLevelTable, PlayerDirectory playerDirectory) {
+        Player player1 = playoffLevelTable.getPlayer1();
+        Player player2 = playoffLevelTable.getPlayer2();
+        String name1 = player1 != null ? playerDirectory.getDisplayName(player1) : "";
+        String name2 = player2 != null ? playerDirectory.getDisplayName(player2) : "";
+        if (!playoffLevelTable.arePlayersAssigned()) {
+            return new MatchSummary(name1, name2, "", "", 0);
+        }
+        int winner = 0;
+        if (playoffLevelTable.isWin(player1.getId()) == MatchScore.win) {
+            winner = 1;
+        } else if (playoffLevelTable.isWin(player2.getId()) == MatchScore.win) {
+            winner = 2;
+        }
+        return new MatchSummary(name1, name2,
+                scoreToString(playoffLevelTable.getTotalScore(player1.getId())),
+                scoreToString(playoffLevelTable.getTotalScore(player2.getId())),
+                winner);
+    }
+
+    public String getPlayer1() {
+        return player1;
+    }
+
+    public String getPlayer2() {
+        return player2;
+    }
+
+    public String getScore1() {
+        return score1;
+    }
+
+    public String getScore2() {
+        return score2;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+}
@@ -1,8 +1,13 @@
 package ru.appliedtech.chess.playoffsite;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
@@ -10,36 +15,221 @@ import freemarker.template.TemplateExceptionHandler;
 import ru.appliedtech.chess.*;
 import ru.appliedtech.chess.playoff.PlayoffLevel;
 import ru.appliedtech.chess.playoff.PlayoffLevelPlayers;
-import ru.appliedtech.chess.playoff.PlayoffLevelTable;
-import ru.appliedtech.chess.playoff.PlayoffSetup;
 import ru.appliedtech.chess.playoff.io.PlayoffSetupObjectNodeReader;
+import ru.appliedtech.chess.playoffsite.assets.AssetPipeline;
+import ru.appliedtech.chess.playoffsite.daemon.PlayoffSiteDaemon;
+import ru.appliedtech.chess.playoffsite.games.GamePartitions;
+import ru.appliedtech.chess.playoffsite.games.StreamingGameReader;
+import ru.appliedtech.chess.playoffsite.incremental.LevelFragmentCache;
+import ru.appliedtech.chess.playoffsite.ingest.IngestServer;
+import ru.appliedtech.chess.playoffsite.ingest.ResultIngestor;
+import ru.appliedtech.chess.playoffsite.incremental.LevelInputsDigest;
 import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelTableView;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelViewDirectRenderingEngine;
 import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelViewHtmlRenderingEngine;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelViewJsonRenderingEngine;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelViewRenderingEngine;
+import ru.appliedtech.chess.playoffsite.metrics.RunMetrics;
+import ru.appliedtech.chess.playoffsite.metrics.Stage;
+import ru.appliedtech.chess.playoffsite.metrics.StatusLog;
+import ru.appliedtech.chess.playoffsite.output.OutputPublisher;
+import ru.appliedtech.chess.playoffsite.patches.CellPatchTracker;
+import ru.appliedtech.chess.playoffsite.players.PlayerDirectory;
+import ru.appliedtech.chess.playoffsite.rating.RatingTracker;
+import ru.appliedtech.chess.playoffsite.server.PlayoffSiteServer;
+import ru.appliedtech.chess.playoffsite.snapshot.InputSnapshot;
 import ru.appliedtech.chess.storage.GameReadOnlyStorage;
 import ru.appliedtech.chess.storage.GameStorage;
-import ru.appliedtech.chess.storage.PlayerReadOnlyStorage;
 import ru.appliedtech.chess.storage.PlayerStorage;
 
 import java.io.*;
+import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 import static java.util.Collections.emptyMap;
-import static java.util.Comparator.comparingInt;
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
 
 public class PlayoffSiteGenerator {
+    private static final String LEVEL_TABLE_TEMPLATE = "playoffLevelTable.ftl";
+    private static final String LIVE_SCRIPT = "playoff-live.js";
+    private static final String INDEX_PAGE = "index.html";
+    private static final int INPUT_LOADER_THREADS = 4;
+    private static final int STREAMING_BUFFER_SIZE = 64 * 1024;
 
-    public static void main(String[] args) throws IOException, TemplateException {
-        new PlayoffSiteGenerator().run(
+    private final PlayoffSiteOptions options;
+    private final Configuration configuration;
+    private final PlayoffLevelViewRenderingEngine renderingEngine;
+    private final PlayoffLevelViewRenderingEngine jsonRenderingEngine;
+    private final ObjectMapper tournamentDescriptionMapper;
+    private final ObjectMapper playersMapper;
+    private final ObjectMapper levelPlayersMapper;
+    private final List<GeneratedSiteListener> listeners = new CopyOnWriteArrayList<>();
+    private final StatusLog status = new StatusLog();
+    private StreamingGameReader gameReader;
+    private String gameReaderKey;
+    private ObjectMapper validationMapper;
+    private String validationMapperKey;
+
+    public PlayoffSiteGenerator() {
+        this(new PlayoffSiteOptions());
+    }
+
+    public PlayoffSiteGenerator(PlayoffSiteOptions options) {
+        this.options = validate(options);
+        this.configuration = createTemplatesConfiguration();
+        this.renderingEngine = createRenderingEngine(options, configuration);
+        this.jsonRenderingEngine = new PlayoffLevelViewJsonRenderingEngine();
+        this.tournamentDescriptionMapper = createTournamentDescriptionMapper();
+        this.playersMapper = new ChessBaseObjectMapper(emptyMap());
+        this.levelPlayersMapper = new ObjectMapper();
+    }
+
+    private PlayoffSiteGenerator(PlayoffSiteOptions options, PlayoffSiteGenerator shared) {
+        this.options = validate(options);
+        this.configuration = shared.configuration;
+        this.renderingEngine = options.getEngine().equals(shared.options.getEngine())
+                ? shared.renderingEngine
+                : createRenderingEngine(options, configuration);
+        this.jsonRenderingEngine = shared.jsonRenderingEngine;
+        this.tournamentDescriptionMapper = shared.tournamentDescriptionMapper;
+        this.playersMapper = shared.playersMapper;
+        this.levelPlayersMapper = shared.levelPlayersMapper;
+    }
+
+    // The returned generator reuses the templates configuration, its template cache and the
+    // object mappers of this one, but keeps its own game reader and listeners, so several
+    // tournaments can be generated concurrently in one JVM.
+    public PlayoffSiteGenerator share(PlayoffSiteOptions options) {
+        return new PlayoffSiteGenerator(options, this);
+    }
+
+    private static PlayoffSiteOptions validate(PlayoffSiteOptions options) {
+        // A streamed index is written while its levels are rendered, before the patch
+        // sequence number it has to carry is known.
+        if (options.isPatches() && options.isStreaming()) {
+            throw new IllegalArgumentException("--patches cannot be combined with --streaming");
+        }
+        // Patches address levels on the one index page, and shard pages are small enough
+        // to be rendered in memory.
+        if (options.isSharded() && (options.isPatches() || options.isStreaming())) {
+            throw new IllegalArgumentException("--shards cannot be combined with --patches or --streaming");
+        }
+        // Assets rewrite class names in finished pages, while patches carry the original
+        // ones and a streamed index is never held in memory.
+        if (options.isAssets() && (options.isPatches() || options.isStreaming())) {
+            throw new IllegalArgumentException("--assets cannot be combined with --patches or --streaming");
+        }
+        // The server only holds the pages; the live script and the patch files it would
+        // poll for are written to the output directory alone.
+        if (options.getServePort() > 0 && options.isPatches()) {
+            throw new IllegalArgumentException("--serve cannot be combined with --patches");
+        }
+        // Served pages are held in memory, which a streamed index is written to avoid.
+        if (options.getServePort() > 0 && options.isStreaming()) {
+            throw new IllegalArgumentException("--serve cannot be combined with --streaming");
+        }
+        return options;
+    }
+
+    public static void main(String[] args) throws IOException, TemplateException, InterruptedException {
+        PlayoffSiteOptions options = PlayoffSiteOptions.parse(args, 6);
+        PlayoffSiteGenerator generator = new PlayoffSiteGenerator(options);
+        if (options.getServePort() > 0) {
+            InetAddress serveAddress = options.getServeAddress() != null
+                    ? InetAddress.getByName(options.getServeAddress())
+                    : InetAddress.getLoopbackAddress();
+            PlayoffSiteServer server = new PlayoffSiteServer(serveAddress, options.getServePort(), options.getThreads());
+            generator.addListener(server);
+            server.start();
+        }
+        // The daemon and the ingestor regenerate from threads of their own.
+        Object runLock = new Object();
+        PlayoffSiteDaemon.Regeneration regeneration = () -> {
+            synchronized (runLock) {
+                generator.run(args[0], args[1], args[2], args[3], args[4], args[5]);
+            }
+        };
+        ResultIngestor ingestor = null;
+        if (options.isIngest()) {
+            ingestor = new ResultIngestor(new File(args[3]), options.getIngestWindowMillis(),
+                    () -> generator.gameObjectMapper(args[1]), regeneration, generator.getStatusLog());
+            // Results logged before the previous process stopped are published with the first run.
+            ingestor.compact();
+        }
+        generator.run(
                 args[0],
                 args[1],
                 args[2],
                 args[3],
                 args[4],
                 args[5]);
+        if (ingestor != null) {
+            ingestor.start();
+            if (options.getIngestPort() > 0) {
+                new IngestServer(options.getIngestPort(), options.getThreads(), ingestor).start();
+            }
+        }
+        ResultIngestor stdinIngestor = ingestor != null && options.getIngestPort() == 0 ? ingestor : null;
+        if (options.isWatch()) {
+            List<Path> watchedFiles = new ArrayList<>(
+                    Arrays.asList(Paths.get(args[1]), Paths.get(args[2]), Paths.get(args[3]), Paths.get(args[4])));
+            if (ingestor != null) {
+                // The ingestor regenerates after compacting into the games file itself.
+                watchedFiles.remove(Paths.get(args[3]));
+            }
+            if (stdinIngestor != null) {
+                Thread reader = new Thread(() -> {
+                    try {
+                        ingestStdin(stdinIngestor);
+                    } catch (IOException e) {
+                        generator.getStatusLog().failure("ingestion", "Ingestion failed", e);
+                    }
+                }, "playoff-site-stdin");
+                reader.setDaemon(true);
+                reader.start();
+            }
+            PlayoffSiteDaemon daemon = new PlayoffSiteDaemon(watchedFiles, options.getDebounceMillis(), regeneration,
+                    generator.getStatusLog());
+            daemon.run();
+        } else if (stdinIngestor != null) {
+            ingestStdin(stdinIngestor);
+        }
+    }
+
+    private static void ingestStdin(ResultIngestor ingestor) throws IOException {
+        try (ResultIngestor ignored = ingestor) {
+            ingestor.ingest(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), System.out);
+        }
+    }
+
+    public void addListener(GeneratedSiteListener listener) {
+        if (options.isStreaming()) {
+            throw new IllegalStateException("Listeners are not notified of streamed sites");
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(GeneratedSiteListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Where the daemon, the ingestor and the server thread report; its failure counts go
+    // into every run report.
+    public StatusLog getStatusLog() {
+        return status;
     }
 
     public void run(String localeDef,
@@ -48,63 +238,438 @@ public class PlayoffSiteGenerator {
                     String gamesFilePath,
                     String levelPlayersFilePath,
                     String outputDir) throws IOException, TemplateException {
-        Configuration configuration = createTemplatesConfiguration();
-        TournamentDescription tournamentDescription = readTournamentDescription(tournamentDescriptionFilePath);
-        PlayoffSetup playoffSetup = (PlayoffSetup) tournamentDescription.getTournamentSetup();
-        PlayerStorage playerStorage = readPlayers(playersFilePath, tournamentDescription);
-        GameStorage gameStorage = readGames(gamesFilePath, tournamentDescription);
-        List<PlayoffLevelPlayers> playoffLevelPlayers = readPlayoffLevelPlayers(levelPlayersFilePath);
+        RunMetrics metrics = new RunMetrics();
+        TournamentDescription tournamentDescription;
+        PlayerDirectory playerDirectory;
+        GameStorage gameStorage;
+        List<PlayoffLevelPlayersJsonRecord> playoffLevelPlayers;
+        CompletableFuture<JsonSource> descriptionSource;
+        try (RunMetrics.StageTimer ignored = metrics.start(Stage.INPUT_LOAD)) {
+            //noinspection ResultOfMethodCallIgnored
+            new File(outputDir).mkdirs();
+            // The games are always kept in the snapshot with the offset and checksum the reader
+            // stopped at, so that a new process parses only what was appended since; the other
+            // inputs only with --snapshot.
+            InputSnapshot snapshot = InputSnapshot.load(new File(outputDir));
+            InputSnapshot inputSnapshot = options.isSnapshot() ? snapshot : null;
+            ExecutorService loader = Executors.newFixedThreadPool(INPUT_LOADER_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "playoff-site-input");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                // Only the players directory and the games depend on the parsed description;
+                // all files are read, and everything else parsed, while it is being parsed.
+                descriptionSource = supplyAsync(() -> JsonSource.load(
+                        tournamentDescriptionFilePath, "tournamentDescription", tournamentDescriptionMapper, inputSnapshot), loader);
+                CompletableFuture<TournamentDescription> description = descriptionSource
+                        .thenApply(unchecked(source -> source.read(tournamentDescriptionMapper,
+                                tournamentDescriptionMapper.constructType(TournamentDescription.class))));
+                CompletableFuture<List<Player>> players = supplyAsync(() -> JsonSource.load(
+                        playersFilePath, "players", playersMapper, inputSnapshot), loader)
+                        .thenApply(unchecked(source -> source.read(playersMapper,
+                                playersMapper.getTypeFactory().constructType(new TypeReference<ArrayList<Player>>() {}))));
+                CompletableFuture<List<PlayoffLevelPlayersJsonRecord>> levelPlayers = supplyAsync(() -> JsonSource.load(
+                        levelPlayersFilePath, "levelPlayers", levelPlayersMapper, inputSnapshot), loader)
+                        .thenApply(unchecked(source -> source.read(levelPlayersMapper,
+                                levelPlayersMapper.getTypeFactory().constructType(
+                                        new TypeReference<ArrayList<PlayoffLevelPlayersJsonRecord>>() {}))));
+                CompletableFuture<InputSnapshot.Content> gamesContent = supplyAsync(
+                        () -> InputSnapshot.Content.read(new File(gamesFilePath)), loader);
+                CompletableFuture<PlayerDirectory> directory = players.thenCombine(description, PlayerDirectory::new);
+                CompletableFuture<GameStorage> games = gamesContent.thenCombine(description, (content, d) -> {
+                    try {
+                        return readGames(gamesFilePath, content, tournamentDescriptionFilePath, d, snapshot);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                tournamentDescription = join(description);
+                playerDirectory = join(directory);
+                gameStorage = join(games);
+                playoffLevelPlayers = join(levelPlayers);
+            } finally {
+                loader.shutdownNow();
+            }
+            snapshot.save();
+        }
+        PlayerStorage playerStorage = playerDirectory.toPlayerStorage();
+        metrics.count("players", playerDirectory.getPlayers().size());
+        metrics.count("games", gameReader.getCount());
+        metrics.count("levels", playoffLevelPlayers.size());
 
-        //noinspection ResultOfMethodCallIgnored
-        new File(outputDir).mkdirs();
+        GamePartitions gamePartitions = null;
+        if (options.isPartitionGames()) {
+            Set<String> levelPlayerIds = new HashSet<>();
+            for (PlayoffLevelPlayersJsonRecord record : playoffLevelPlayers) {
+                if (record.getPlayer1() != null) {
+                    levelPlayerIds.add(record.getPlayer1());
+                }
+                if (record.getPlayer2() != null) {
+                    levelPlayerIds.add(record.getPlayer2());
+                }
+            }
+            gamePartitions = new GamePartitions(gameReader.getGames(), gameReader.getRecords(), levelPlayerIds);
+        }
+        LevelTables levelTables = new LevelTables(tournamentDescription, playerStorage, gameStorage, playoffLevelPlayers,
+                metrics, gamePartitions);
+        Map<String, String> resolvedDescription = resolve(tournamentDescription, playerDirectory);
+        RatingTracker ratingTracker = null;
+        if (options.isRatings()) {
+            // Ratings are shared by all locales, so their state lives in the root output directory.
+            ratingTracker = RatingTracker.load(new File(outputDir));
+            metrics.count("ratedGames", ratingTracker.update(levelTables));
+            ratingTracker.save();
+        }
 
-        Locale locale = resolveLocale(localeDef);
+        List<Locale> locales = resolveLocales(localeDef);
+        metrics.count("locales", locales.size());
+        LevelInputsDigest levelInputsDigest = null;
+        if (options.isIncremental()) {
+            levelInputsDigest = new LevelInputsDigest(
+                    Digests.sha256Hex(readResource(LEVEL_TABLE_TEMPLATE)),
+                    locales.get(0),
+                    Digests.toHex(join(descriptionSource).getHash()),
+                    gameReader.getRecords());
+        }
+        // Inputs and level tables are shared; only the views and the templates are rendered
+        // per locale. With several locales each one gets its own subdirectory.
+        try (OutputPublisher publisher = new OutputPublisher(options.getGzipLevel(), options.getThreads(), metrics)) {
+            for (int i = 0; i < locales.size(); i++) {
+                Locale locale = locales.get(i);
+                File localeOutputDir = locales.size() > 1 ? new File(outputDir, locale.toString()) : new File(outputDir);
+                generate(locale, localeOutputDir, levelTables, playerDirectory, resolvedDescription,
+                        levelInputsDigest != null ? levelInputsDigest.forLocale(locale) : null,
+                        ratingTracker, i == 0, publisher, metrics);
+            }
+        }
+        for (Map.Entry<String, Long> failures : status.getFailures().entrySet()) {
+            metrics.count(failures.getKey() + "Failures", failures.getValue());
+        }
+        if (options.isReport()) {
+            writeReport(new File(outputDir, "run-report.json"), metrics);
+        }
+    }
 
-        List<String> matches = new ArrayList<>();
-        for (PlayoffLevelPlayers levelPlayers : playoffLevelPlayers) {
-            PlayoffLevelTable playoffLevelTable = new PlayoffLevelTable(
-                    levelPlayers.getLevel(), levelPlayers, playerStorage,
-                    gameStorage,
-                    playoffSetup, tournamentDescription);
-            PlayoffLevelTableView view = new PlayoffLevelTableView(
-                    locale, playoffLevelTable, tournamentDescription);
-            PlayoffLevelViewHtmlRenderingEngine renderingEngine = new PlayoffLevelViewHtmlRenderingEngine(configuration);
-            try (StringWriter writer = new StringWriter()) {
-                renderingEngine.render(view, writer);
-                matches.add(writer.toString());
+    private static <T> CompletableFuture<T> supplyAsync(IOSupplier<T> supplier, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return supplier.get();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    private static <T, R> Function<T, R> unchecked(IOFunction<T, R> function) {
+        return value -> {
+            try {
+                return function.apply(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Loading of inputs was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
             }
+            throw new IOException(cause);
+        }
+    }
+
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private interface IOFunction<T, R> {
+        R apply(T value) throws IOException;
+    }
+
+    private void writeReport(File reportFile, RunMetrics metrics) throws IOException {
+        File tempFile = File.createTempFile("." + reportFile.getName(), ".tmp", reportFile.getAbsoluteFile().getParentFile());
+        try {
+            levelPlayersMapper.writerWithDefaultPrettyPrinter().writeValue(tempFile, metrics.toReport());
+            Files.move(tempFile.toPath(), reportFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
         }
+    }
+
+    private void generate(Locale locale,
+                          File outputDir,
+                          LevelTables levelTables,
+                          PlayerDirectory playerDirectory,
+                          Map<String, String> resolvedDescription,
+                          LevelInputsDigest levelInputsDigest,
+                          RatingTracker ratingTracker,
+                          boolean notify,
+                          OutputPublisher publisher,
+                          RunMetrics metrics) throws IOException, TemplateException {
+        //noinspection ResultOfMethodCallIgnored
+        outputDir.mkdirs();
+        if (options.isJson()) {
+            writeJson(locale, outputDir, levelTables, playerDirectory, resolvedDescription, ratingTracker, publisher, metrics);
+        }
+
+        CellPatchTracker patchTracker = options.isPatches() ? CellPatchTracker.load(outputDir) : null;
+        LevelFragmentCache fragmentCache = null;
+        if (levelInputsDigest != null) {
+            // Cached levels build no views, so the first tracked run has to render them all.
+            fragmentCache = patchTracker == null || patchTracker.hasPreviousState()
+                    ? LevelFragmentCache.load(outputDir)
+                    : LevelFragmentCache.create(outputDir);
+        }
+
+        LevelFragmentRenderer levelRenderer = new LevelFragmentRenderer(
+                renderingEngine, locale, levelTables, playerDirectory, fragmentCache, levelInputsDigest, metrics,
+                patchTracker, ratingTracker);
+        List<PlayoffLevelPlayersJsonRecord> playoffLevelPlayers = levelTables.getPlayoffLevelPlayers();
+        // Listeners serve a single site, the one of the first locale.
+        boolean notifyListeners = notify && !listeners.isEmpty();
         Map<String, Object> model = new HashMap<>();
-        model.put("matches", matches);
-        model.put("tournamentDescription", resolve(tournamentDescription, readKnownParticipants(playersFilePath)));
-        try (Writer writer = new OutputStreamWriter(
-                new FileOutputStream(new File(outputDir, "index.html")),
-                StandardCharsets.UTF_8)) {
+        model.put("tournamentDescription", resolvedDescription);
+        File indexFile = new File(outputDir, INDEX_PAGE);
+        if (options.isStreaming()) {
+            model.put("matches", new LazyLevelSequence(levelRenderer, playoffLevelPlayers));
+            File tempFile = publisher.createTempFile(indexFile);
+            try (RunMetrics.StageTimer ignored = metrics.start(Stage.INDEX_RENDER, locale.toString())) {
+                writeIndexStreaming(model, tempFile);
+                if (fragmentCache != null) {
+                    fragmentCache.save();
+                }
+            } catch (IOException | TemplateException | RuntimeException e) {
+                Files.deleteIfExists(tempFile.toPath());
+                throw e;
+            }
+            publisher.publish(indexFile, tempFile);
+            return;
+        }
+        List<String> matches = renderLevels(levelRenderer, playoffLevelPlayers);
+        if (fragmentCache != null) {
+            fragmentCache.save();
+        }
+        if (options.isAssets()) {
+            model.put("assets", Boolean.TRUE);
+        }
+        Map<String, byte[]> pages;
+        if (options.isSharded()) {
+            pages = renderShards(locale, levelTables, playerDirectory, model, matches, metrics);
+        } else {
+            model.put("matches", matches);
+            if (patchTracker != null) {
+                long patchSequence = patchTracker.publish(matches.size(), publisher);
+                publisher.publish(new File(outputDir, LIVE_SCRIPT), readResource(LIVE_SCRIPT));
+                model.put("patchSequence", String.valueOf(patchSequence));
+            }
+            pages = new LinkedHashMap<>();
+            pages.put(INDEX_PAGE, processTemplate("index.ftl", model, metrics, locale.toString()));
+        }
+        if (options.isAssets()) {
+            pages = AssetPipeline.load().process(pages);
+        }
+        List<File> published = new ArrayList<>();
+        for (Map.Entry<String, byte[]> page : pages.entrySet()) {
+            File pageFile = new File(outputDir, page.getKey());
+            publisher.publish(pageFile, page.getValue());
+            published.add(pageFile);
+        }
+        publisher.removeStale(new File(outputDir, SiteShard.PAGES_DIR_NAME), published);
+        publisher.removeStale(new File(outputDir, AssetPipeline.ASSETS_DIR_NAME), published);
+        if (notifyListeners) {
+            Map<String, byte[]> otherPages = new LinkedHashMap<>(pages);
+            byte[] index = otherPages.remove(INDEX_PAGE);
+            notifyListeners(new GeneratedSite(index, matches, otherPages));
+        }
+    }
+
+    private Map<String, byte[]> renderShards(Locale locale,
+                                             LevelTables levelTables,
+                                             PlayerDirectory playerDirectory,
+                                             Map<String, Object> model,
+                                             List<String> matches,
+                                             RunMetrics metrics) throws IOException, TemplateException {
+        ResourceBundle resourceBundle = ResourceBundle.getBundle("resources", locale);
+        List<SiteShard> shards = SiteShard.split(levelTables.getPlayoffLevelPlayers(), options.getShardSize());
+        Map<String, byte[]> pages = new LinkedHashMap<>();
+        List<Map<String, Object>> shardLinks = new ArrayList<>();
+        for (SiteShard shard : shards) {
+            String levelDescription = PlayoffLevelTableView.levelDescription(resourceBundle, shard.getLevel());
+            List<String> shardMatches = new ArrayList<>();
+            List<MatchSummary> summaries = new ArrayList<>();
+            for (int index : shard.getIndexes()) {
+                shardMatches.add(matches.get(index));
+                summaries.add(MatchSummary.of(levelTables.get(index), playerDirectory));
+            }
+            // Pages of a level link to each other by file name, as they share a directory.
+            List<String> pageLinks = new ArrayList<>();
+            for (SiteShard sibling : shards) {
+                if (sibling.getLevel() == shard.getLevel()) {
+                    pageLinks.add(new File(sibling.getPath()).getName());
+                }
+            }
+            Map<String, Object> shardModel = new HashMap<>(model);
+            shardModel.put("levelDescription", levelDescription);
+            shardModel.put("page", shard.getPage());
+            shardModel.put("pageCount", shard.getPageCount());
+            shardModel.put("pageLinks", pageLinks);
+            shardModel.put("matches", shardMatches);
+            pages.put(shard.getPath(), processTemplate("shard.ftl", shardModel, metrics, locale + ":" + shard.getPath()));
+
+            Map<String, Object> shardLink = new HashMap<>();
+            shardLink.put("path", shard.getPath());
+            shardLink.put("levelDescription", levelDescription);
+            shardLink.put("page", shard.getPage());
+            shardLink.put("pageCount", shard.getPageCount());
+            shardLink.put("summaries", summaries);
+            shardLinks.add(shardLink);
+        }
+        Map<String, Object> indexModel = new HashMap<>(model);
+        indexModel.put("shards", shardLinks);
+        pages.put(INDEX_PAGE, processTemplate("shardIndex.ftl", indexModel, metrics, locale.toString()));
+        return pages;
+    }
+
+    private byte[] processTemplate(String templateName,
+                                   Map<String, Object> model,
+                                   RunMetrics metrics,
+                                   String subject) throws IOException, TemplateException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RunMetrics.StageTimer ignored = metrics.start(Stage.INDEX_RENDER, subject);
+             Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            Template template = configuration.getTemplate(templateName);
+            template.process(model, writer);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeJson(Locale locale,
+                           File outputDir,
+                           LevelTables levelTables,
+                           PlayerDirectory playerDirectory,
+                           Map<String, String> resolvedDescription,
+                           RatingTracker ratingTracker,
+                           OutputPublisher publisher,
+                           RunMetrics metrics) throws IOException {
+        LevelFragmentRenderer jsonRenderer = new LevelFragmentRenderer(
+                jsonRenderingEngine, locale, levelTables, playerDirectory, null, null, metrics, null, ratingTracker);
+        List<String> levels = renderLevels(jsonRenderer, levelTables.getPlayoffLevelPlayers());
+        for (int i = 0; i < levels.size(); i++) {
+            publisher.publish(new File(outputDir, "levels/" + i + ".json"), levels.get(i).getBytes(StandardCharsets.UTF_8));
+        }
+        // Level objects are already serialized, so matches.json embeds them as raw values.
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RunMetrics.StageTimer ignored = metrics.start(Stage.INDEX_RENDER, locale + ":json");
+             JsonGenerator generator = levelPlayersMapper.getFactory().createGenerator(bytes, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("locale", locale.toString());
+            generator.writeObjectFieldStart("tournament");
+            for (Map.Entry<String, String> entry : new TreeMap<>(resolvedDescription).entrySet()) {
+                generator.writeStringField(entry.getKey(), entry.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeArrayFieldStart("levels");
+            for (String level : levels) {
+                generator.writeRawValue(level);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        publisher.publish(new File(outputDir, "matches.json"), bytes.toByteArray());
+    }
+
+    private void writeIndexStreaming(Map<String, Object> model, File file) throws IOException, TemplateException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file),
+                StandardCharsets.UTF_8), STREAMING_BUFFER_SIZE)) {
             Template template = configuration.getTemplate("index.ftl");
             template.process(model, writer);
         }
     }
 
-    private List<Player> readKnownParticipants(String playersFilePath) throws IOException {
-        ObjectMapper baseMapper = new ChessBaseObjectMapper(emptyMap());
-        List<Player> players;
-        try (FileInputStream fis = new FileInputStream(playersFilePath)) {
-            players = baseMapper.readValue(fis, new TypeReference<ArrayList<Player>>() {});
+    private void notifyListeners(GeneratedSite site) {
+        for (GeneratedSiteListener listener : listeners) {
+            listener.siteGenerated(site);
+        }
+    }
+
+    private List<String> renderLevels(LevelFragmentRenderer levelRenderer,
+                                      List<PlayoffLevelPlayersJsonRecord> playoffLevelPlayers) throws IOException {
+        List<String> matches = new ArrayList<>();
+        int threads = Math.min(options.getThreads(), playoffLevelPlayers.size());
+        if (threads <= 1) {
+            for (int i = 0; i < playoffLevelPlayers.size(); i++) {
+                matches.add(levelRenderer.render(i, playoffLevelPlayers.get(i)));
+            }
+            return matches;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> fragments = new ArrayList<>();
+            for (int i = 0; i < playoffLevelPlayers.size(); i++) {
+                int index = i;
+                PlayoffLevelPlayersJsonRecord record = playoffLevelPlayers.get(i);
+                fragments.add(executor.submit(() -> levelRenderer.render(index, record)));
+            }
+            // Futures are collected in submission order, so the bracket order is kept.
+            for (Future<String> fragment : fragments) {
+                matches.add(fragment.get());
+            }
+            return matches;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Rendering of playoff levels was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream is = PlayoffSiteGenerator.class.getResourceAsStream("/" + name)) {
+            if (is == null) {
+                throw new FileNotFoundException(name);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
         }
-        return players;
     }
 
-    private Map<String, String> resolve(TournamentDescription tournamentDescription, List<Player> registeredPlayers) {
+    private Map<String, String> resolve(TournamentDescription tournamentDescription, PlayerDirectory playerDirectory) {
         Map<String, String> result = new HashMap<>();
         result.put("tournamentTitle", tournamentDescription.getTournamentTitle());
         result.put("tournamentId", tournamentDescription.getTournamentId());
-        result.put("arbiter", idToName(registeredPlayers).apply(tournamentDescription.getArbiter()));
+        result.put("arbiter", playerDirectory.getDisplayName(tournamentDescription.getArbiter()));
         String deputyArbiters = tournamentDescription.getDeputyArbiters().stream()
-                .map(idToName(registeredPlayers))
+                .map(playerDirectory::getDisplayName)
                 .collect(joining(", "));
         result.put("deputyArbiters", deputyArbiters);
         String gameWriters = tournamentDescription.getGameWriters().stream()
-                .map(idToName(registeredPlayers))
+                .map(playerDirectory::getDisplayName)
                 .collect(joining(", "));
         result.put("gameWriters", gameWriters);
         result.put("regulations", tournamentDescription.getRegulations());
@@ -120,22 +685,6 @@ public class PlayoffSiteGenerator {
         return result;
     }
 
-    private Function<String, String> idToName(List<Player> registeredPlayers) {
-        return id -> registeredPlayers.stream().filter(p -> p.getId().equals(id)).map(p -> p.getFirstName() + " " + p.getLastName())
-                .findFirst().orElse(id);
-    }
-
-    private List<PlayoffLevelPlayers> readPlayoffLevelPlayers(String levelPlayersFilePath) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        List<PlayoffLevelPlayersJsonRecord> records;
-        try (FileInputStream fis = new FileInputStream(levelPlayersFilePath)) {
-            records = mapper.readValue(fis, new TypeReference<ArrayList<PlayoffLevelPlayersJsonRecord>>() {});
-        }
-        return records.stream()
-                .map(r -> new PlayoffLevelPlayers(r.getLevel(), r.getPlayer1(), r.getPlayer2()))
-                .collect(toList());
-    }
-
     public static final class PlayoffLevelPlayersJsonRecord {
         @JsonProperty("player1")
         private String player1;
@@ -155,6 +704,21 @@ public class PlayoffSiteGenerator {
         public String getPlayer2() {
             return player2;
         }
+
+        public PlayoffLevelPlayers toPlayoffLevelPlayers() {
+            return new PlayoffLevelPlayers(level, player1, player2);
+        }
+    }
+
+    private List<Locale> resolveLocales(String localeDefs) {
+        List<Locale> locales = new ArrayList<>();
+        for (String localeDef : localeDefs.split(",")) {
+            Locale locale = resolveLocale(localeDef.trim());
+            if (!locales.contains(locale)) {
+                locales.add(locale);
+            }
+        }
+        return locales;
     }
 
     private Locale resolveLocale(String localeDef) {
@@ -165,46 +729,75 @@ public class PlayoffSiteGenerator {
         return language.isEmpty() ? Locale.US : new Locale(language, country, variant);
     }
 
-    private GameStorage readGames(String gamesFilePath, TournamentDescription tournamentDescription) throws IOException {
-        ObjectMapper gameObjectMapper = new GameObjectMapper(tournamentDescription.getTournamentSetup());
-        List<Game> games;
-        try (FileInputStream fis = new FileInputStream(gamesFilePath)) {
-            games = gameObjectMapper.readValue(fis, new TypeReference<ArrayList<Game>>() {});
+    private GameStorage readGames(String gamesFilePath,
+                                  InputSnapshot.Content gamesContent,
+                                  String tournamentDescriptionFilePath,
+                                  TournamentDescription tournamentDescription,
+                                  InputSnapshot snapshot) throws IOException {
+        File tournamentDescriptionFile = new File(tournamentDescriptionFilePath);
+        String gameReaderKey = new File(gamesFilePath).getAbsolutePath()
+                + "|" + tournamentDescriptionFile.length()
+                + "|" + tournamentDescriptionFile.lastModified();
+        InputSnapshot.Entry snapshotEntry = snapshot.getEntry("games");
+        if (gameReader == null || !gameReaderKey.equals(this.gameReaderKey)) {
+            ObjectMapper gameObjectMapper = new GameObjectMapper(tournamentDescription.getTournamentSetup());
+            // Records are kept for the snapshot.
+            gameReader = new StreamingGameReader(new File(gamesFilePath), gameObjectMapper, true);
+            this.gameReaderKey = gameReaderKey;
+            if (snapshotEntry != null) {
+                // The reader checks the stored prefix checksum itself, so even a games file
+                // appended to since the snapshot was taken only has its new records parsed.
+                List<JsonNode> records = new ArrayList<>();
+                snapshotEntry.getTree().forEach(records::add);
+                gameReader.restore(records, snapshotEntry.getOffset(), snapshotEntry.getChecksum());
+            }
+        }
+        gameReader.read(gamesContent.getBytes());
+        if (snapshotEntry == null
+                || snapshotEntry.getOffset() != gameReader.getOffset()
+                || snapshotEntry.getChecksum() != gameReader.getPrefixChecksum()) {
+            ArrayNode records = JsonNodeFactory.instance.arrayNode();
+            records.addAll(gameReader.getRecords());
+            snapshot.put("games", new File(gamesFilePath), gamesContent, records,
+                    gameReader.getOffset(), gameReader.getPrefixChecksum());
+        }
+        return new GameReadOnlyStorage(gameReader.getGames());
+    }
+
+    // The mapper games are read with, for validating games before they reach the games file.
+    public synchronized ObjectMapper gameObjectMapper(String tournamentDescriptionFilePath) throws IOException {
+        File tournamentDescriptionFile = new File(tournamentDescriptionFilePath);
+        String key = tournamentDescriptionFile.getAbsolutePath()
+                + "|" + tournamentDescriptionFile.length()
+                + "|" + tournamentDescriptionFile.lastModified();
+        if (!key.equals(validationMapperKey)) {
+            TournamentDescription tournamentDescription =
+                    tournamentDescriptionMapper.readValue(tournamentDescriptionFile, TournamentDescription.class);
+            validationMapper = new GameObjectMapper(tournamentDescription.getTournamentSetup());
+            validationMapperKey = key;
         }
-        return new GameReadOnlyStorage(games);
+        return validationMapper;
     }
 
-    private PlayerStorage readPlayers(String playersFilePath, TournamentDescription tournamentDescription) throws IOException {
-        ObjectMapper baseMapper = new ChessBaseObjectMapper(emptyMap());
-        List<Player> players;
-        try (FileInputStream fis = new FileInputStream(playersFilePath)) {
-            players = baseMapper.readValue(fis, new TypeReference<ArrayList<Player>>() {});
+    private static PlayoffLevelViewRenderingEngine createRenderingEngine(PlayoffSiteOptions options,
+                                                                        Configuration configuration) {
+        switch (options.getEngine()) {
+            case "freemarker":
+                return new PlayoffLevelViewHtmlRenderingEngine(configuration);
+            case "direct":
+                return new PlayoffLevelViewDirectRenderingEngine();
+            default:
+                throw new IllegalArgumentException("Unknown rendering engine: " + options.getEngine());
         }
-        List<String> registeredPlayerIds = tournamentDescription.getPlayers();
-        List<Player> registeredPlayers = players.stream()
-                .filter(player -> registeredPlayerIds.contains(player.getId()))
-                .sorted(comparingInt(p -> registeredPlayerIds.indexOf(p.getId())))
-                .collect(toList());
-        List<String> joinedPlayers = tournamentDescription.getJoinedPlayers();
-        registeredPlayers.addAll(players.stream()
-                .filter(player -> joinedPlayers.contains(player.getId()))
-                .sorted(comparingInt(p -> joinedPlayers.indexOf(p.getId())))
-                .collect(toList()));
-        return new PlayerReadOnlyStorage(registeredPlayers);
     }
 
-    private TournamentDescription readTournamentDescription(String tournamentDescriptionFilePath) throws IOException {
+    private ObjectMapper createTournamentDescriptionMapper() {
         Map<String, TournamentSetupObjectNodeReader> tournamentSetupReaders = new HashMap<>();
         tournamentSetupReaders.put("playoff", new PlayoffSetupObjectNodeReader());
-        ObjectMapper baseMapper = new ChessBaseObjectMapper(tournamentSetupReaders);
-        TournamentDescription tournamentDescription;
-        try (FileInputStream fis = new FileInputStream(tournamentDescriptionFilePath)) {
-            tournamentDescription = baseMapper.readValue(fis, TournamentDescription.class);
-        }
-        return tournamentDescription;
+        return new ChessBaseObjectMapper(tournamentSetupReaders);
     }
 
-    private Configuration createTemplatesConfiguration() {
+    public static Configuration createTemplatesConfiguration() {
         Configuration configuration = new Configuration(Configuration.VERSION_2_3_28);
         configuration.setDefaultEncoding(StandardCharsets.UTF_8.displayName());
         configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
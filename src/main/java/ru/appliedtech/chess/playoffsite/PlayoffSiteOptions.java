@@ -0,0 +1,328 @@
+package ru.appliedtech.chess.playoffsite;
+
+import ru.appliedtech.chess.playoffsite.output.OutputPublisher;
+
+public class PlayoffSiteOptions {
+    private boolean incremental;
+    private int threads = 1;
+    private boolean watch;
+    private long debounceMillis = 250;
+    private int servePort;
+    private boolean streaming;
+    private String engine = "freemarker";
+    private int gzipLevel = OutputPublisher.NO_COMPRESSION;
+    private boolean snapshot;
+    private boolean report;
+    private boolean json;
+    private boolean patches;
+    private boolean partitionGames;
+    private boolean sharded;
+    private int shardSize;
+    private boolean assets;
+    private boolean ratings;
+    private boolean ingest;
+    private int ingestPort;
+    private long ingestWindowMillis = 500;
+    private String serveAddress;
+
+    public static PlayoffSiteOptions parse(String[] args, int from) {
+        PlayoffSiteOptions options = new PlayoffSiteOptions();
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            int eq = arg.indexOf('=');
+            String name = eq >= 0 ? arg.substring(0, eq) : arg;
+            String value = eq >= 0 ? arg.substring(eq + 1) : null;
+            options.apply(name, value);
+        }
+        return options;
+    }
+
+    private void apply(String name, String value) {
+        switch (name) {
+            case "--incremental":
+                incremental = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--threads":
+                threads = value == null || value.equals("auto")
+                        ? Runtime.getRuntime().availableProcessors()
+                        : Integer.parseInt(value);
+                if (threads < 1) {
+                    throw new IllegalArgumentException("Number of threads must be positive: " + value);
+                }
+                break;
+            case "--watch":
+                watch = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--debounce":
+                debounceMillis = Long.parseLong(value);
+                if (debounceMillis < 0) {
+                    throw new IllegalArgumentException("Debounce window must not be negative: " + value);
+                }
+                break;
+            case "--serve":
+                servePort = value == null ? 8080 : Integer.parseInt(value);
+                if (servePort <= 0 || servePort > 65535) {
+                    throw new IllegalArgumentException("Invalid port: " + value);
+                }
+                break;
+            case "--streaming":
+                streaming = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--engine":
+                if (!"freemarker".equals(value) && !"direct".equals(value)) {
+                    throw new IllegalArgumentException("Unknown rendering engine: " + value);
+                }
+                engine = value;
+                break;
+            case "--snapshot":
+                snapshot = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--report":
+                report = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--json":
+                json = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--patches":
+                patches = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--partition-games":
+                partitionGames = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--shards":
+                // Without a value every level gets one page, otherwise pages of at most N matches.
+                sharded = true;
+                shardSize = value == null ? 0 : Integer.parseInt(value);
+                if (shardSize < 0) {
+                    throw new IllegalArgumentException("Shard size must not be negative: " + value);
+                }
+                break;
+            case "--assets":
+                assets = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--ratings":
+                ratings = value == null || Boolean.parseBoolean(value);
+                break;
+            case "--ingest":
+                // Without a value, or with "stdin", game records are read line by line from
+                // the standard input, otherwise they are posted to the given port.
+                ingest = true;
+                ingestPort = value == null || value.equals("stdin") ? 0 : Integer.parseInt(value);
+                if (ingestPort < 0 || ingestPort > 65535) {
+                    throw new IllegalArgumentException("Invalid port: " + value);
+                }
+                break;
+            case "--ingest-window":
+                ingestWindowMillis = Long.parseLong(value);
+                if (ingestWindowMillis < 0) {
+                    throw new IllegalArgumentException("Ingest window must not be negative: " + value);
+                }
+                break;
+            case "--serve-address":
+                // Pages are served on the loopback interface unless an address is given.
+                if (value == null || value.isEmpty()) {
+                    throw new IllegalArgumentException("--serve-address needs an address");
+                }
+                serveAddress = value;
+                break;
+            case "--gzip":
+                gzipLevel = value == null ? 9 : Integer.parseInt(value);
+                if (gzipLevel < 1 || gzipLevel > 9) {
+                    throw new IllegalArgumentException("Gzip level must be between 1 and 9: " + value);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + name);
+        }
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public PlayoffSiteOptions setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        return this;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public PlayoffSiteOptions setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public PlayoffSiteOptions setWatch(boolean watch) {
+        this.watch = watch;
+        return this;
+    }
+
+    public long getDebounceMillis() {
+        return debounceMillis;
+    }
+
+    public PlayoffSiteOptions setDebounceMillis(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+        return this;
+    }
+
+    public int getServePort() {
+        return servePort;
+    }
+
+    public PlayoffSiteOptions setServePort(int servePort) {
+        this.servePort = servePort;
+        return this;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public PlayoffSiteOptions setStreaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public PlayoffSiteOptions setEngine(String engine) {
+        this.engine = engine;
+        return this;
+    }
+
+    public int getGzipLevel() {
+        return gzipLevel;
+    }
+
+    public PlayoffSiteOptions setGzipLevel(int gzipLevel) {
+        this.gzipLevel = gzipLevel;
+        return this;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public PlayoffSiteOptions setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+        return this;
+    }
+
+    public boolean isReport() {
+        return report;
+    }
+
+    public PlayoffSiteOptions setReport(boolean report) {
+        this.report = report;
+        return this;
+    }
+
+    public boolean isJson() {
+        return json;
+    }
+
+    public PlayoffSiteOptions setJson(boolean json) {
+        this.json = json;
+        return this;
+    }
+
+    public boolean isPatches() {
+        return patches;
+    }
+
+    public PlayoffSiteOptions setPatches(boolean patches) {
+        this.patches = patches;
+        return this;
+    }
+
+    public boolean isPartitionGames() {
+        return partitionGames;
+    }
+
+    public PlayoffSiteOptions setPartitionGames(boolean partitionGames) {
+        this.partitionGames = partitionGames;
+        return this;
+    }
+
+    public boolean isSharded() {
+        return sharded;
+    }
+
+    public PlayoffSiteOptions setSharded(boolean sharded) {
+        this.sharded = sharded;
+        return this;
+    }
+
+    public int getShardSize() {
+        return shardSize;
+    }
+
+    public PlayoffSiteOptions setShardSize(int shardSize) {
+        this.shardSize = shardSize;
+        return this;
+    }
+
+    public boolean isAssets() {
+        return assets;
+    }
+
+    public PlayoffSiteOptions setAssets(boolean assets) {
+        this.assets = assets;
+        return this;
+    }
+
+    public boolean isRatings() {
+        return ratings;
+    }
+
+    public PlayoffSiteOptions setRatings(boolean ratings) {
+        this.ratings = ratings;
+        return this;
+    }
+
+    public boolean isIngest() {
+        return ingest;
+    }
+
+    public PlayoffSiteOptions setIngest(boolean ingest) {
+        this.ingest = ingest;
+        return this;
+    }
+
+    public int getIngestPort() {
+        return ingestPort;
+    }
+
+    public PlayoffSiteOptions setIngestPort(int ingestPort) {
+        this.ingestPort = ingestPort;
+        return this;
+    }
+
+    public long getIngestWindowMillis() {
+        return ingestWindowMillis;
+    }
+
+    public PlayoffSiteOptions setIngestWindowMillis(long ingestWindowMillis) {
+        this.ingestWindowMillis = ingestWindowMillis;
+        return this;
+    }
+
+    // Null means the loopback interface.
+    public String getServeAddress() {
+        return serveAddress;
+    }
+
+    public PlayoffSiteOptions setServeAddress(String serveAddress) {
+        this.serveAddress = serveAddress;
+        return this;
+    }
+}
@@ -0,0 +1,68 @@
+package ru.appliedtech.chess.playoffsite;
+
+import ru.appliedtech.chess.playoff.PlayoffLevel;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator.PlayoffLevelPlayersJsonRecord;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableList;
+
+public class SiteShard {
+    public static final String PAGES_DIR_NAME = "pages";
+
+    private final PlayoffLevel level;
+    private final int page;
+    private final int pageCount;
+    private final List<Integer> indexes;
+
+    public SiteShard(PlayoffLevel level, int page, int pageCount, List<Integer> indexes) {
+        this.level = level;
+        this.page = page;
+        this.pageCount = pageCount;
+        this.indexes = unmodifiableList(new ArrayList<>(indexes));
+    }
+
+    // Matches of a level share one page, or pages of at most shardSize matches when it is
+    // positive. Levels keep the order in which they first appear in the level players file.
+    public static List<SiteShard> split(List<PlayoffLevelPlayersJsonRecord> playoffLevelPlayers, int shardSize) {
+        Map<PlayoffLevel, List<Integer>> levels = new LinkedHashMap<>();
+        for (int i = 0; i < playoffLevelPlayers.size(); i++) {
+            levels.computeIfAbsent(playoffLevelPlayers.get(i).getLevel(), level -> new ArrayList<>()).add(i);
+        }
+        List<SiteShard> shards = new ArrayList<>();
+        for (Map.Entry<PlayoffLevel, List<Integer>> entry : levels.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            int size = shardSize > 0 ? shardSize : indexes.size();
+            int pageCount = (indexes.size() + size - 1) / size;
+            for (int page = 0; page < pageCount; page++) {
+                shards.add(new SiteShard(entry.getKey(), page + 1, pageCount,
+                        indexes.subList(page * size, Math.min(indexes.size(), (page + 1) * size))));
+            }
+        }
+        return shards;
+    }
+
+    public PlayoffLevel getLevel() {
+        return level;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public List<Integer> getIndexes() {
+        return indexes;
+    }
+
+    public String getPath() {
+        String name = level.name().toLowerCase();
+        return PAGES_DIR_NAME + "/" + (page > 1 ? name + "-" + page : name) + ".html";
+    }
+}
@@ -0,0 +1,301 @@
+package ru.appliedtech.chess.playoffsite.assets;
+
+import ru.appliedtech.chess.playoffsite.Digests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class AssetPipeline {
+    public static final String ASSETS_DIR_NAME = "assets";
+    public static final String MARKER = "<!-- playoff-assets -->";
+    private static final String STYLESHEET = "/assets/playoff.css";
+    private static final String CRITICAL_END = "/* critical-end */";
+    private static final Pattern CLASS_ATTRIBUTE = Pattern.compile("class=\"([^\"]*)\"");
+    private static final Pattern CLASS_SELECTOR = Pattern.compile("\\.(-?[_a-zA-Z][_a-zA-Z0-9-]*)");
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    // Comments starting with "/*!" carry license notices and are kept in the bundle.
+    private static final Pattern NOTICE = Pattern.compile("/\\*!.*?\\*/", Pattern.DOTALL);
+
+    private final List<Rule> criticalRules;
+    private final List<Rule> rules;
+    private final String notices;
+    private final List<String> styledClasses = new ArrayList<>();
+
+    public AssetPipeline(String stylesheet) {
+        int criticalEnd = stylesheet.indexOf(CRITICAL_END);
+        String critical = criticalEnd >= 0 ? stylesheet.substring(0, criticalEnd) : "";
+        String rest = criticalEnd >= 0 ? stylesheet.substring(criticalEnd + CRITICAL_END.length()) : stylesheet;
+        this.criticalRules = parse(COMMENT.matcher(critical).replaceAll(""));
+        this.rules = parse(COMMENT.matcher(rest).replaceAll(""));
+        StringBuilder notices = new StringBuilder();
+        Matcher notice = NOTICE.matcher(stylesheet);
+        while (notice.find()) {
+            notices.append(notice.group()).append('\n');
+        }
+        this.notices = notices.toString();
+        Matcher matcher = CLASS_SELECTOR.matcher(selectorsOf(criticalRules) + selectorsOf(rules));
+        Set<String> seen = new HashSet<>();
+        while (matcher.find()) {
+            if (seen.add(matcher.group(1))) {
+                styledClasses.add(matcher.group(1));
+            }
+        }
+    }
+
+    public static AssetPipeline load() throws IOException {
+        try (InputStream is = AssetPipeline.class.getResourceAsStream(STYLESHEET)) {
+            if (is == null) {
+                throw new IOException("Resource not found: " + STYLESHEET);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) >= 0) {
+                bytes.write(buffer, 0, read);
+            }
+            return new AssetPipeline(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    // Takes the pages of a site keyed by their path relative to its root and returns them
+    // with short class names, the critical rules each page uses inlined in place of the
+    // marker, and a link to a content-hashed bundle of the remaining rules the site uses.
+    // The bundle comes first in the returned map, so it is published before the pages.
+    public Map<String, byte[]> process(Map<String, byte[]> pages) {
+        Map<String, String> htmlPages = new LinkedHashMap<>();
+        Map<String, Set<String>> pageClasses = new HashMap<>();
+        Set<String> siteClasses = new HashSet<>();
+        for (Map.Entry<String, byte[]> entry : pages.entrySet()) {
+            String html = new String(entry.getValue(), StandardCharsets.UTF_8);
+            Set<String> classes = collectClasses(html);
+            htmlPages.put(entry.getKey(), html);
+            pageClasses.put(entry.getKey(), classes);
+            siteClasses.addAll(classes);
+        }
+        Set<String> keptClasses = new HashSet<>(siteClasses);
+        keptClasses.removeAll(styledClasses);
+        Map<String, String> shortNames = shortNames(keptClasses);
+        byte[] bundle = (notices + render(rules, siteClasses, shortNames)).getBytes(StandardCharsets.UTF_8);
+        String bundlePath = ASSETS_DIR_NAME + "/playoff." + Digests.sha256Hex(bundle).substring(0, 12) + ".css";
+
+        Map<String, byte[]> result = new LinkedHashMap<>();
+        result.put(bundlePath, bundle);
+        for (Map.Entry<String, String> entry : htmlPages.entrySet()) {
+            String path = entry.getKey();
+            String html = rewriteClasses(entry.getValue(), shortNames);
+            String head = "<style>" + render(criticalRules, pageClasses.get(path), shortNames) + "</style>"
+                    + "<link rel=\"stylesheet\" href=\"" + relativePrefix(path) + bundlePath + "\">";
+            result.put(path, html.replace(MARKER, head).getBytes(StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    // Short names follow the order in which classes first appear in the stylesheet, so they
+    // only change when the stylesheet does, or when a page starts using a class that no rule
+    // mentions under a name that would otherwise be given to a styled class.
+    private Map<String, String> shortNames(Set<String> keptClasses) {
+        Map<String, String> shortNames = new HashMap<>();
+        int index = 0;
+        for (String name : styledClasses) {
+            String shortName;
+            do {
+                shortName = shortName(index++);
+            } while (keptClasses.contains(shortName));
+            shortNames.put(name, shortName);
+        }
+        return shortNames;
+    }
+
+    private static Set<String> collectClasses(String html) {
+        Set<String> classes = new HashSet<>();
+        Matcher matcher = CLASS_ATTRIBUTE.matcher(html);
+        while (matcher.find()) {
+            for (String name : matcher.group(1).trim().split("\\s+")) {
+                if (!name.isEmpty()) {
+                    classes.add(name);
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static String rewriteClasses(String html, Map<String, String> shortNames) {
+        Matcher matcher = CLASS_ATTRIBUTE.matcher(html);
+        StringBuffer result = new StringBuffer(html.length());
+        while (matcher.find()) {
+            StringBuilder names = new StringBuilder();
+            for (String name : matcher.group(1).trim().split("\\s+")) {
+                if (!name.isEmpty()) {
+                    // Classes no rule mentions are kept, scripts may still look for them.
+                    String shortName = shortNames.get(name);
+                    names.append(names.length() > 0 ? " " : "").append(shortName != null ? shortName : name);
+                }
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement("class=\"" + names + "\""));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String render(List<Rule> rules, Set<String> usedClasses, Map<String, String> shortNames) {
+        StringBuilder css = new StringBuilder();
+        for (Rule rule : rules) {
+            if (rule.children != null) {
+                String children = render(rule.children, usedClasses, shortNames);
+                if (!children.isEmpty()) {
+                    css.append(collapse(rule.prelude)).append('{').append(children).append('}');
+                }
+                continue;
+            }
+            StringBuilder selectors = new StringBuilder();
+            for (String selector : split(rule.prelude, ',')) {
+                if (isUsed(selector, usedClasses)) {
+                    selectors.append(selectors.length() > 0 ? "," : "").append(minifySelector(selector, shortNames));
+                }
+            }
+            if (selectors.length() > 0) {
+                css.append(selectors).append('{').append(minifyDeclarations(rule.body)).append('}');
+            }
+        }
+        return css.toString();
+    }
+
+    private static boolean isUsed(String selector, Set<String> usedClasses) {
+        Matcher matcher = CLASS_SELECTOR.matcher(selector);
+        while (matcher.find()) {
+            if (!usedClasses.contains(matcher.group(1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String minifySelector(String selector, Map<String, String> shortNames) {
+        Matcher matcher = CLASS_SELECTOR.matcher(collapse(selector).replaceAll(" ?> ?", ">"));
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            matcher.appendReplacement(result, Matcher.quoteReplacement("." + shortNames.get(matcher.group(1))));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String minifyDeclarations(String body) {
+        StringBuilder result = new StringBuilder();
+        for (String declaration : split(body, ';')) {
+            int colon = declaration.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String value = declaration.substring(colon + 1);
+            // Strings and url(...) are kept as written, whitespace and commas included.
+            value = value.indexOf('"') >= 0 || value.indexOf('\'') >= 0 || value.contains("url(")
+                    ? value.trim()
+                    : collapse(value).replace(", ", ",");
+            result.append(result.length() > 0 ? ";" : "")
+                    .append(declaration.substring(0, colon).trim()).append(':').append(value);
+        }
+        return result.toString();
+    }
+
+    // Splits at separators outside of strings and parentheses.
+    private static List<String> split(String text, char separator) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == separator && depth == 0) {
+                parts.add(text.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(text.substring(start));
+        return parts;
+    }
+
+    private static String collapse(String text) {
+        return text.trim().replaceAll("\\s+", " ").replace(": ", ":");
+    }
+
+    private static String relativePrefix(String path) {
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                prefix.append("../");
+            }
+        }
+        return prefix.toString();
+    }
+
+    private static String shortName(int index) {
+        StringBuilder name = new StringBuilder();
+        int i = index;
+        do {
+            name.insert(0, (char) ('a' + i % 26));
+            i = i / 26 - 1;
+        } while (i >= 0);
+        return name.toString();
+    }
+
+    private static String selectorsOf(List<Rule> rules) {
+        StringBuilder selectors = new StringBuilder();
+        for (Rule rule : rules) {
+            selectors.append(rule.children != null ? selectorsOf(rule.children) : rule.prelude + ",");
+        }
+        return selectors.toString();
+    }
+
+    private static List<Rule> parse(String css) {
+        List<Rule> rules = new ArrayList<>();
+        int i = 0;
+        while (true) {
+            int open = css.indexOf('{', i);
+            if (open < 0) {
+                return rules;
+            }
+            String prelude = css.substring(i, open).trim();
+            int depth = 1;
+            int close = open + 1;
+            while (depth > 0 && close < css.length()) {
+                char c = css.charAt(close++);
+                depth += c == '{' ? 1 : c == '}' ? -1 : 0;
+            }
+            String body = css.substring(open + 1, close - 1);
+            rules.add(prelude.startsWith("@")
+                    ? new Rule(prelude, null, parse(body))
+                    : new Rule(prelude, body, null));
+            i = close;
+        }
+    }
+
+    private static final class Rule {
+        private final String prelude;
+        private final String body;
+        private final List<Rule> children;
+
+        private Rule(String prelude, String body, List<Rule> children) {
+            this.prelude = prelude;
+            this.body = body;
+            this.children = children;
+        }
+    }
+}
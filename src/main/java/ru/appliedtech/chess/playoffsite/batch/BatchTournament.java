@@ -0,0 +1,71 @@
+package ru.appliedtech.chess.playoffsite.batch;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.File;
+
+public final class BatchTournament {
+    @JsonProperty("id")
+    private String id;
+    @JsonProperty("locale")
+    private String locale;
+    @JsonProperty("tournamentDescription")
+    private String tournamentDescription;
+    @JsonProperty("players")
+    private String players;
+    @JsonProperty("games")
+    private String games;
+    @JsonProperty("levelPlayers")
+    private String levelPlayers;
+    @JsonProperty("outputDir")
+    private String outputDir;
+
+    public String getId() {
+        return id;
+    }
+
+    public String getLocale() {
+        return locale != null ? locale : "";
+    }
+
+    public String getTournamentDescription() {
+        return tournamentDescription;
+    }
+
+    public String getPlayers() {
+        return players;
+    }
+
+    public String getGames() {
+        return games;
+    }
+
+    public String getLevelPlayers() {
+        return levelPlayers;
+    }
+
+    public String getOutputDir() {
+        return outputDir;
+    }
+
+    // Relative paths in a manifest are relative to the manifest itself.
+    BatchTournament resolve(File baseDir) {
+        BatchTournament resolved = new BatchTournament();
+        resolved.id = id != null ? id : outputDir;
+        resolved.locale = locale;
+        resolved.tournamentDescription = resolve(baseDir, tournamentDescription, "tournamentDescription");
+        resolved.players = resolve(baseDir, players, "players");
+        resolved.games = resolve(baseDir, games, "games");
+        resolved.levelPlayers = resolve(baseDir, levelPlayers, "levelPlayers");
+        resolved.outputDir = resolve(baseDir, outputDir, "outputDir");
+        return resolved;
+    }
+
+    private String resolve(File baseDir, String path, String name) {
+        if (path == null) {
+            throw new IllegalArgumentException("Tournament " + (id != null ? id : "") + " has no " + name);
+        }
+        File file = new File(path);
+        return (file.isAbsolute() || baseDir == null ? file : new File(baseDir, path)).getPath();
+    }
+}
@@ -0,0 +1,157 @@
+package ru.appliedtech.chess.playoffsite.batch;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteOptions;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PlayoffSiteBatch {
+    private final PlayoffSiteOptions options;
+    private final PlayoffSiteGenerator sharedGenerator;
+
+    public PlayoffSiteBatch(PlayoffSiteOptions options) {
+        this.options = options;
+        this.sharedGenerator = new PlayoffSiteGenerator(tournamentOptions(options));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: PlayoffSiteBatch <manifest.json> [options]");
+        }
+        PlayoffSiteOptions options = PlayoffSiteOptions.parse(args, 1);
+        List<BatchTournament> tournaments = readManifest(new File(args[0]));
+        List<Result> results = new PlayoffSiteBatch(options).run(tournaments);
+        int failed = 0;
+        for (Result result : results) {
+            if (result.getError() == null) {
+                System.out.println(result.getTournament().getId() + ": generated in " + result.getMillis() + " ms");
+            } else {
+                failed++;
+                System.err.println(result.getTournament().getId() + ": failed: " + result.getError());
+            }
+        }
+        if (failed > 0) {
+            throw new IOException(failed + " of " + results.size() + " tournaments failed");
+        }
+    }
+
+    public static List<BatchTournament> readManifest(File manifestFile) throws IOException {
+        List<BatchTournament> tournaments;
+        try (FileInputStream fis = new FileInputStream(manifestFile)) {
+            tournaments = new ObjectMapper().readValue(fis, new TypeReference<ArrayList<BatchTournament>>() {});
+        }
+        File baseDir = manifestFile.getAbsoluteFile().getParentFile();
+        List<BatchTournament> resolved = new ArrayList<>();
+        for (BatchTournament tournament : tournaments) {
+            resolved.add(tournament.resolve(baseDir));
+        }
+        return resolved;
+    }
+
+    public List<Result> run(List<BatchTournament> tournaments) throws IOException {
+        List<Result> results = new ArrayList<>();
+        int threads = Math.max(1, Math.min(options.getThreads(), tournaments.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (BatchTournament tournament : tournaments) {
+                futures.add(executor.submit(() -> generate(tournament)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    // generate() reports every failure in its result; this only keeps one
+                    // tournament that escaped it from discarding the others.
+                    results.add(new Result(tournaments.get(i), 0, e.getCause()));
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch generation was interrupted");
+        } finally {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Result generate(BatchTournament tournament) {
+        long start = System.nanoTime();
+        try {
+            PlayoffSiteGenerator generator = sharedGenerator.share(tournamentOptions(options));
+            generator.run(
+                    tournament.getLocale(),
+                    tournament.getTournamentDescription(),
+                    tournament.getPlayers(),
+                    tournament.getGames(),
+                    tournament.getLevelPlayers(),
+                    tournament.getOutputDir());
+            return new Result(tournament, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), null);
+        } catch (Throwable e) {
+            // Errors as well: running out of memory on one large event or a broken template
+            // setup fails that tournament, not the rest of the batch.
+            return new Result(tournament, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+        }
+    }
+
+    private static PlayoffSiteOptions tournamentOptions(PlayoffSiteOptions options) {
+        // The batch pool already runs one tournament per thread; rendering the levels of
+        // each tournament on further threads would only oversubscribe the machine.
+        return new PlayoffSiteOptions()
+                .setIncremental(options.isIncremental())
+                .setStreaming(options.isStreaming())
+                .setEngine(options.getEngine())
+                .setGzipLevel(options.getGzipLevel())
+                .setSnapshot(options.isSnapshot())
+                .setReport(options.isReport())
+                .setJson(options.isJson())
+                .setPatches(options.isPatches())
+                .setPartitionGames(options.isPartitionGames())
+                .setSharded(options.isSharded())
+                .setShardSize(options.getShardSize())
+                .setAssets(options.isAssets())
+                .setRatings(options.isRatings())
+                .setThreads(1);
+    }
+
+    public static final class Result {
+        private final BatchTournament tournament;
+        private final long millis;
+        private final Throwable error;
+
+        Result(BatchTournament tournament, long millis, Throwable error) {
+            this.tournament = tournament;
+            this.millis = millis;
+            this.error = error;
+        }
+
+        public BatchTournament getTournament() {
+            return tournament;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.appliedtech.chess.playoffsite.daemon;
+
+import ru.appliedtech.chess.playoffsite.metrics.StatusLog;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+public class PlayoffSiteDaemon {
+    private static final int MAX_DELAY_FACTOR = 10;
+
+    private final Map<Path, Set<Path>> watchedFileNames = new HashMap<>();
+    private final long debounceMillis;
+    private final Regeneration regeneration;
+    private final StatusLog status;
+    private volatile boolean stopped;
+
+    public PlayoffSiteDaemon(List<Path> watchedFiles, long debounceMillis, Regeneration regeneration, StatusLog status) {
+        for (Path file : watchedFiles) {
+            Path absolute = file.toAbsolutePath().normalize();
+            watchedFileNames.computeIfAbsent(absolute.getParent(), dir -> new HashSet<>()).add(absolute.getFileName());
+        }
+        this.debounceMillis = debounceMillis;
+        this.regeneration = regeneration;
+        this.status = status;
+    }
+
+    public void run() throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Map<WatchKey, Path> directories = new HashMap<>();
+            for (Path dir : watchedFileNames.keySet()) {
+                directories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY), dir);
+            }
+            long firstChange = 0;
+            long deadline = 0;
+            while (!stopped) {
+                WatchKey key;
+                if (deadline == 0) {
+                    key = watchService.poll(1, TimeUnit.SECONDS);
+                } else {
+                    long remaining = deadline - System.currentTimeMillis();
+                    key = remaining > 0 ? watchService.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                }
+                if (key != null) {
+                    if (isRelevant(key, directories.get(key))) {
+                        long now = System.currentTimeMillis();
+                        if (deadline == 0) {
+                            firstChange = now;
+                        }
+                        // A burst of writes keeps postponing the regeneration, but never
+                        // beyond a few debounce windows after the first change of the burst.
+                        deadline = Math.min(now + debounceMillis, firstChange + MAX_DELAY_FACTOR * debounceMillis);
+                    }
+                    if (!key.reset()) {
+                        directories.remove(key);
+                        if (directories.isEmpty()) {
+                            throw new IOException("No watched directories are accessible anymore");
+                        }
+                    }
+                } else if (deadline != 0 && System.currentTimeMillis() >= deadline) {
+                    deadline = 0;
+                    regenerate();
+                }
+            }
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    private boolean isRelevant(WatchKey key, Path dir) {
+        boolean relevant = false;
+        Set<Path> fileNames = dir != null ? watchedFileNames.get(dir) : null;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                relevant = true;
+            } else if (fileNames != null && fileNames.contains((Path) event.context())) {
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+
+    private void regenerate() {
+        long start = System.nanoTime();
+        try {
+            regeneration.regenerate();
+            status.info("Regenerated in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (Exception e) {
+            // Inputs are often caught half-written; the next change triggers another attempt.
+            status.failure("regeneration", "Regeneration failed", e);
+        }
+    }
+
+    public interface Regeneration {
+        void regenerate() throws Exception;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.appliedtech.chess.playoffsite.games;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import ru.appliedtech.chess.Game;
+import ru.appliedtech.chess.storage.GameReadOnlyStorage;
+import ru.appliedtech.chess.storage.GameStorage;
+
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+
+// Games grouped by unordered pair of level players in one pass over the games file, so that
+// every PlayoffLevelTable gets a storage with only the games of its own pairing.
+public class GamePartitions {
+    private final Map<String, List<Game>> gamesByPair = new HashMap<>();
+    private final Map<String, GameStorage> storages = new HashMap<>();
+
+    public GamePartitions(List<Game> games, List<JsonNode> records, Collection<String> playerIds) {
+        if (games.size() != records.size()) {
+            throw new IllegalArgumentException("Every game needs its record: " + games.size() + " != " + records.size());
+        }
+        Set<String> knownIds = new HashSet<>(playerIds);
+        for (int i = 0; i < games.size(); i++) {
+            // Games are attributed by the player ids among the record's textual values,
+            // as the record layout belongs to GameObjectMapper.
+            List<String> ids = new ArrayList<>();
+            for (String value : GameRecords.textValues(records.get(i))) {
+                if (knownIds.contains(value)) {
+                    ids.add(value);
+                }
+            }
+            // Usually exactly two ids; with more, every pair gets the game, which is
+            // a superset of what PlayoffLevelTable filters out of the full storage.
+            for (int a = 0; a < ids.size(); a++) {
+                for (int b = a + 1; b < ids.size(); b++) {
+                    gamesByPair.computeIfAbsent(pairKey(ids.get(a), ids.get(b)), k -> new ArrayList<>()).add(games.get(i));
+                }
+            }
+        }
+    }
+
+    public synchronized GameStorage storageFor(String player1Id, String player2Id) {
+        if (player1Id == null || player2Id == null) {
+            return new GameReadOnlyStorage(emptyList());
+        }
+        String key = pairKey(player1Id, player2Id);
+        return storages.computeIfAbsent(key,
+                k -> new GameReadOnlyStorage(gamesByPair.getOrDefault(k, emptyList())));
+    }
+
+    private static String pairKey(String id1, String id2) {
+        return id1.compareTo(id2) <= 0 ? id1 + '\u0000' + id2 : id2 + '\u0000' + id1;
+    }
+}
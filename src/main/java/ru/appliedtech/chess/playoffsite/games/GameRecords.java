@@ -0,0 +1,28 @@
+package ru.appliedtech.chess.playoffsite.games;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public final class GameRecords {
+    private GameRecords() {
+    }
+
+    // All distinct textual values of a game record, in document order.
+    public static Set<String> textValues(JsonNode record) {
+        Set<String> values = new LinkedHashSet<>();
+        collectTextValues(record, values);
+        return values;
+    }
+
+    private static void collectTextValues(JsonNode node, Set<String> values) {
+        if (node.isTextual()) {
+            values.add(node.asText());
+        } else if (node.isContainerNode()) {
+            for (JsonNode child : node) {
+                collectTextValues(child, values);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package ru.appliedtech.chess.playoffsite.games;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.appliedtech.chess.Game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static java.util.Collections.unmodifiableList;
+
+public class StreamingGameReader {
+    private final File gamesFile;
+    private final ObjectMapper gameObjectMapper;
+    private final boolean keepRecords;
+    private final List<Game> games = new ArrayList<>();
+    private final List<JsonNode> records = new ArrayList<>();
+    private long offset;
+    private long prefixChecksum;
+
+    public StreamingGameReader(File gamesFile, ObjectMapper gameObjectMapper, boolean keepRecords) {
+        this.gamesFile = gamesFile;
+        this.gameObjectMapper = gameObjectMapper;
+        this.keepRecords = keepRecords;
+    }
+
+    public void read() throws IOException {
+        read(Files.readAllBytes(gamesFile.toPath()));
+    }
+
+    // Reads from content already loaded from the games file, e.g. by a concurrent prefetch.
+    public synchronized void read(byte[] content) throws IOException {
+        if (offset > 0 && content.length >= offset && checksum(content, offset) == prefixChecksum) {
+            if (readAppended(content)) {
+                return;
+            }
+        }
+        readAll(content);
+    }
+
+    // Seeds the reader with records parsed by an earlier run. The next read() verifies the
+    // prefix checksum and then parses only what was appended since, or everything on mismatch.
+    public synchronized void restore(List<JsonNode> restoredRecords, long restoredOffset, long restoredChecksum) throws IOException {
+        games.clear();
+        records.clear();
+        for (JsonNode record : restoredRecords) {
+            games.add(gameObjectMapper.treeToValue(record, Game.class));
+            if (keepRecords) {
+                records.add(record);
+            }
+        }
+        offset = restoredOffset;
+        prefixChecksum = restoredChecksum;
+    }
+
+    public synchronized List<Game> getGames() {
+        return unmodifiableList(new ArrayList<>(games));
+    }
+
+    public synchronized List<JsonNode> getRecords() {
+        return unmodifiableList(new ArrayList<>(records));
+    }
+
+    public synchronized int getCount() {
+        return games.size();
+    }
+
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    public synchronized long getPrefixChecksum() {
+        return prefixChecksum;
+    }
+
+    private void readAll(byte[] content) throws IOException {
+        games.clear();
+        records.clear();
+        offset = 0;
+        try (JsonParser parser = gameObjectMapper.getFactory().createParser(content)) {
+            long end = readArray(parser, 0);
+            if (end > 0) {
+                offset = end;
+            }
+        }
+        prefixChecksum = checksum(content, offset);
+    }
+
+    private boolean readAppended(byte[] content) throws IOException {
+        int i = skipWhitespace(content, (int) offset);
+        if (i < content.length && content[i] == ']') {
+            return true;
+        }
+        if (i >= content.length || content[i] != ',') {
+            return false;
+        }
+        int start = i + 1;
+        // The appended records are parsed as an array of their own: "[" followed by
+        // everything after the separator, so parser offsets are shifted by one byte.
+        byte[] appended = new byte[content.length - start + 1];
+        appended[0] = '[';
+        System.arraycopy(content, start, appended, 1, content.length - start);
+        int count = games.size();
+        try (JsonParser parser = gameObjectMapper.getFactory().createParser(appended)) {
+            long end = readArray(parser, start - 1);
+            if (end > 0) {
+                offset = end;
+            }
+        } catch (IOException e) {
+            games.subList(count, games.size()).clear();
+            if (keepRecords) {
+                records.subList(count, records.size()).clear();
+            }
+            return false;
+        }
+        prefixChecksum = checksum(content, offset);
+        return true;
+    }
+
+    private long readArray(JsonParser parser, long base) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Games file must contain a JSON array: " + gamesFile);
+        }
+        long end = -1;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (keepRecords) {
+                JsonNode record = gameObjectMapper.readTree(parser);
+                records.add(record);
+                games.add(gameObjectMapper.treeToValue(record, Game.class));
+            } else {
+                games.add(gameObjectMapper.readValue(parser, Game.class));
+            }
+            end = base + parser.getCurrentLocation().getByteOffset();
+        }
+        if (parser.getCurrentToken() != JsonToken.END_ARRAY) {
+            throw new IOException("Unexpected token " + parser.getCurrentToken() + " in games file: " + gamesFile);
+        }
+        return end;
+    }
+
+    private static int skipWhitespace(byte[] bytes, int from) {
+        int i = from;
+        while (i < bytes.length && (bytes[i] == ' ' || bytes[i] == '\t' || bytes[i] == '\r' || bytes[i] == '\n')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static long checksum(byte[] content, long length) {
+        // Appending never touches the bytes before the last record, so a changed
+        // checksum means the file was edited and has to be parsed from scratch.
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, (int) length);
+        return crc.getValue();
+    }
+}
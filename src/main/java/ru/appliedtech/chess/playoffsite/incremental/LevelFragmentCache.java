@@ -0,0 +1,131 @@
+package ru.appliedtech.chess.playoffsite.incremental;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ru.appliedtech.chess.playoffsite.output.OutputPublisher;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LevelFragmentCache {
+    public static final String MANIFEST_FILE_NAME = "playoff-manifest.json";
+    public static final String FRAGMENTS_DIR_NAME = "fragments";
+    private static final int MANIFEST_VERSION = 1;
+
+    private final File outputDir;
+    private final ObjectMapper mapper;
+    private final Map<Integer, ManifestEntry> previousEntries;
+    private final List<ManifestEntry> currentEntries = new ArrayList<>();
+
+    private LevelFragmentCache(File outputDir, ObjectMapper mapper, Map<Integer, ManifestEntry> previousEntries) {
+        this.outputDir = outputDir;
+        this.mapper = mapper;
+        this.previousEntries = previousEntries;
+    }
+
+    public static LevelFragmentCache load(File outputDir) {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Map<Integer, ManifestEntry> entries = new HashMap<>();
+        File manifestFile = new File(outputDir, MANIFEST_FILE_NAME);
+        if (manifestFile.isFile()) {
+            try (FileInputStream fis = new FileInputStream(manifestFile)) {
+                Manifest manifest = mapper.readValue(fis, Manifest.class);
+                if (manifest.version == MANIFEST_VERSION && manifest.levels != null) {
+                    for (ManifestEntry entry : manifest.levels) {
+                        entries.put(entry.index, entry);
+                    }
+                }
+            } catch (IOException e) {
+                // A broken manifest only means that every level gets rendered again.
+                entries.clear();
+            }
+        }
+        return new LevelFragmentCache(outputDir, mapper, entries);
+    }
+
+    // A cache that renders every level again but still stores the fragments for later runs.
+    public static LevelFragmentCache create(File outputDir) {
+        return new LevelFragmentCache(outputDir, new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT), new HashMap<>());
+    }
+
+    public String lookup(int index, String hash) {
+        ManifestEntry entry = previousEntries.get(index);
+        if (entry == null || !hash.equals(entry.hash)) {
+            return null;
+        }
+        File fragmentFile = new File(new File(outputDir, FRAGMENTS_DIR_NAME), entry.fragment);
+        if (!fragmentFile.isFile()) {
+            return null;
+        }
+        try {
+            String fragment = new String(Files.readAllBytes(fragmentFile.toPath()), StandardCharsets.UTF_8);
+            synchronized (currentEntries) {
+                currentEntries.add(entry);
+            }
+            return fragment;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void store(int index, String level, String hash, String fragment) throws IOException {
+        File fragmentsDir = new File(outputDir, FRAGMENTS_DIR_NAME);
+        //noinspection ResultOfMethodCallIgnored
+        fragmentsDir.mkdirs();
+        ManifestEntry entry = new ManifestEntry();
+        entry.index = index;
+        entry.level = level;
+        entry.hash = hash;
+        entry.fragment = "level-" + index + ".html";
+        replace(new File(fragmentsDir, entry.fragment), fragment.getBytes(StandardCharsets.UTF_8));
+        synchronized (currentEntries) {
+            currentEntries.add(entry);
+        }
+    }
+
+    public void save() throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.version = MANIFEST_VERSION;
+        synchronized (currentEntries) {
+            manifest.levels = new ArrayList<>(currentEntries);
+        }
+        manifest.levels.sort((e1, e2) -> Integer.compare(e1.index, e2.index));
+        replace(new File(outputDir, MANIFEST_FILE_NAME), mapper.writeValueAsBytes(manifest));
+    }
+
+    // Readers, and the next run after a crash, see either the old file or the new one,
+    // never a torn fragment that an intact manifest entry still points to.
+    private static void replace(File target, byte[] content) throws IOException {
+        File tempFile = File.createTempFile("." + target.getName(), ".tmp", target.getAbsoluteFile().getParentFile());
+        try {
+            Files.write(tempFile.toPath(), content);
+            OutputPublisher.move(tempFile, target);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    public static final class Manifest {
+        @JsonProperty("version")
+        private int version;
+        @JsonProperty("levels")
+        private List<ManifestEntry> levels;
+    }
+
+    public static final class ManifestEntry {
+        @JsonProperty("index")
+        private int index;
+        @JsonProperty("level")
+        private String level;
+        @JsonProperty("hash")
+        private String hash;
+        @JsonProperty("fragment")
+        private String fragment;
+    }
+}
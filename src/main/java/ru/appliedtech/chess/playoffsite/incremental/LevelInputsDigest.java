@@ -0,0 +1,107 @@
+package ru.appliedtech.chess.playoffsite.incremental;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import ru.appliedtech.chess.Player;
+import ru.appliedtech.chess.playoff.PlayoffLevel;
+import ru.appliedtech.chess.playoffsite.Digests;
+import ru.appliedtech.chess.playoffsite.games.GameRecords;
+import ru.appliedtech.chess.playoffsite.players.PlayerDirectory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+
+import static java.util.Collections.emptyList;
+
+public class LevelInputsDigest {
+    private static final int FORMAT_VERSION = 1;
+
+    private final String templateVersion;
+    private final Locale locale;
+    private final String tournamentDescriptionHash;
+    private final Map<String, List<JsonNode>> gamesByPlayerId;
+
+    public LevelInputsDigest(String templateVersion,
+                             Locale locale,
+                             String tournamentDescriptionHash,
+                             List<JsonNode> games) {
+        this.templateVersion = templateVersion;
+        this.locale = locale;
+        this.tournamentDescriptionHash = tournamentDescriptionHash;
+        this.gamesByPlayerId = indexByPlayerId(games);
+    }
+
+    private LevelInputsDigest(LevelInputsDigest digest, Locale locale) {
+        this.templateVersion = digest.templateVersion;
+        this.locale = locale;
+        this.tournamentDescriptionHash = digest.tournamentDescriptionHash;
+        this.gamesByPlayerId = digest.gamesByPlayerId;
+    }
+
+    // Shares the games index, which only has to be built once per run.
+    public LevelInputsDigest forLocale(Locale locale) {
+        return new LevelInputsDigest(this, locale);
+    }
+
+    public String digest(PlayoffLevel level, String player1Id, String player2Id, PlayerDirectory playerDirectory) {
+        MessageDigest digest = Digests.sha256();
+        update(digest, String.valueOf(FORMAT_VERSION));
+        update(digest, templateVersion);
+        update(digest, locale.toString());
+        update(digest, tournamentDescriptionHash);
+        update(digest, level != null ? level.name() : "");
+        updatePlayer(digest, player1Id, playerDirectory.getPlayer(player1Id));
+        updatePlayer(digest, player2Id, playerDirectory.getPlayer(player2Id));
+        for (JsonNode game : gamesOf(player1Id, player2Id)) {
+            update(digest, game.toString());
+        }
+        return Digests.toHex(digest.digest());
+    }
+
+    private List<JsonNode> gamesOf(String player1Id, String player2Id) {
+        List<JsonNode> games1 = player1Id != null ? gamesByPlayerId.getOrDefault(player1Id, emptyList()) : emptyList();
+        List<JsonNode> games2 = player2Id != null ? gamesByPlayerId.getOrDefault(player2Id, emptyList()) : emptyList();
+        // Keep the order of the games file, so that the digest is stable between runs.
+        Set<JsonNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<JsonNode> result = new ArrayList<>();
+        for (JsonNode game : games1) {
+            if (seen.add(game)) {
+                result.add(game);
+            }
+        }
+        for (JsonNode game : games2) {
+            if (seen.add(game)) {
+                result.add(game);
+            }
+        }
+        return result;
+    }
+
+    private void updatePlayer(MessageDigest digest, String playerId, Player player) {
+        update(digest, playerId);
+        if (player != null) {
+            update(digest, player.getFirstName());
+            update(digest, player.getLastName());
+        } else {
+            update(digest, "");
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        digest.update(bytes);
+        digest.update((byte) 0);
+    }
+
+    private static Map<String, List<JsonNode>> indexByPlayerId(List<JsonNode> games) {
+        // The game record layout belongs to GameObjectMapper, so a game is attributed
+        // to every player id that appears among its textual values.
+        Map<String, List<JsonNode>> result = new HashMap<>();
+        for (JsonNode game : games) {
+            for (String value : GameRecords.textValues(game)) {
+                result.computeIfAbsent(value, v -> new ArrayList<>()).add(game);
+            }
+        }
+        return result;
+    }
+}
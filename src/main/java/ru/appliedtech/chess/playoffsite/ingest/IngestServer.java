@@ -0,0 +1,98 @@
+package ru.appliedtech.chess.playoffsite.ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// POST /games with a game record, an array of them, or records separated by whitespace.
+// Answers 202 once the records are on disk; they are published with the next batch.
+// Listens on the loopback interface only.
+public class IngestServer {
+    public static final String GAMES_PATH = "/games";
+    // Requests wait for the sync of their batch, so more of them than pages are in flight.
+    private static final int MIN_THREADS = 8;
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final ResultIngestor ingestor;
+
+    public IngestServer(int port, int threads, ResultIngestor ingestor) throws IOException {
+        this.ingestor = ingestor;
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(Math.max(MIN_THREADS, threads));
+        this.httpServer.setExecutor(executor);
+        this.httpServer.createContext(GAMES_PATH, this::handle);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (!GAMES_PATH.equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            List<JsonNode> records;
+            try (InputStream is = exchange.getRequestBody()) {
+                records = ingestor.readRecords(is);
+                ingestor.submit(records).get();
+            } catch (IOException e) {
+                respond(exchange, 400, e.getMessage());
+                return;
+            } catch (ExecutionException e) {
+                respond(exchange, 503, e.getCause().getMessage());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "Interrupted");
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            respond(exchange, 202, "{\"accepted\":" + records.size() + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message != null ? message : "").getBytes(StandardCharsets.UTF_8);
+        if (!exchange.getResponseHeaders().containsKey("Content-Type")) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        }
+        exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+        if (body.length > 0) {
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+}
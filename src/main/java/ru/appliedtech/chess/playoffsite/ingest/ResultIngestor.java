@@ -0,0 +1,270 @@
+package ru.appliedtech.chess.playoffsite.ingest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.appliedtech.chess.Game;
+import ru.appliedtech.chess.playoffsite.daemon.PlayoffSiteDaemon;
+import ru.appliedtech.chess.playoffsite.metrics.StatusLog;
+import ru.appliedtech.chess.playoffsite.output.OutputPublisher;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+// Accepts game records, keeps them in a write-ahead log next to the games file, and once
+// the batch window after the first of them has passed, appends everything logged so far to
+// the games file and regenerates the site once for all of it.
+public class ResultIngestor implements Closeable {
+    public static final String LOG_SUFFIX = ".wal";
+
+    private final File gamesFile;
+    private final long windowMillis;
+    private final GameMapperSource gameMapperSource;
+    private final PlayoffSiteDaemon.Regeneration regeneration;
+    private final StatusLog status;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final WriteAheadLog log;
+    private final Object batchLock = new Object();
+    private final Thread batcher;
+    private long batchDeadline;
+    private boolean stopped;
+
+    public ResultIngestor(File gamesFile,
+                          long windowMillis,
+                          GameMapperSource gameMapperSource,
+                          PlayoffSiteDaemon.Regeneration regeneration,
+                          StatusLog status) throws IOException {
+        this.gamesFile = gamesFile;
+        this.windowMillis = windowMillis;
+        this.gameMapperSource = gameMapperSource;
+        this.regeneration = regeneration;
+        this.status = status;
+        this.log = new WriteAheadLog(new File(gamesFile.getPath() + LOG_SUFFIX), gamesFile, this::committed, status);
+        this.batcher = new Thread(this::runBatches, "playoff-site-ingest");
+        this.batcher.setDaemon(true);
+    }
+
+    public void start() {
+        batcher.start();
+    }
+
+    // Validates all records before logging any of them; the future completes once they are
+    // on disk, which is when they may be acknowledged.
+    public CompletableFuture<Void> submit(List<JsonNode> records) throws IOException {
+        ObjectMapper gameObjectMapper = gameMapperSource.get();
+        for (int i = 0; i < records.size(); i++) {
+            JsonNode record = records.get(i);
+            if (!record.isObject()) {
+                throw new IOException("Game " + (i + 1) + " is not a JSON object");
+            }
+            try {
+                gameObjectMapper.treeToValue(record, Game.class);
+            } catch (IOException e) {
+                throw new IOException("Game " + (i + 1) + " is invalid: " + e.getMessage(), e);
+            }
+        }
+        return log.append(records);
+    }
+
+    // Reads a single record, an array of records, or records separated by whitespace. Values
+    // are read one at a time: readValues() would unwrap a leading array and stop after it.
+    public List<JsonNode> readRecords(InputStream is) throws IOException {
+        List<JsonNode> records = new ArrayList<>();
+        try (JsonParser parser = mapper.getFactory().createParser(is)) {
+            while (parser.nextToken() != null) {
+                JsonNode value = mapper.readTree(parser);
+                if (value.isArray()) {
+                    value.forEach(records::add);
+                } else {
+                    records.add(value);
+                }
+            }
+        }
+        return records;
+    }
+
+    // The line protocol: one game record per line in, "OK <line>" or "ERROR <line>: <reason>"
+    // out once the record is on disk or rejected. Lines are not held up by the sync of the
+    // previous ones, so results piped in together are committed together.
+    public void ingest(BufferedReader reader, PrintStream out) throws IOException {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            int number = ++lineNumber;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            CompletableFuture<Void> future;
+            try {
+                future = submit(Collections.singletonList(mapper.readTree(line)));
+            } catch (IOException e) {
+                respond(out, "ERROR " + number + ": " + reason(e));
+                continue;
+            }
+            pending.add(future.whenComplete((ignored, e) -> respond(out, e == null
+                    ? "OK " + number
+                    : "ERROR " + number + ": " + reason(e.getCause() != null ? e.getCause() : e))));
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        } catch (RuntimeException e) {
+            // Failures were reported line by line.
+        }
+    }
+
+    // Appends every committed record to the games file and returns their number. Bytes that
+    // were there before stay in place, so the game reader only parses what was appended.
+    public synchronized int compact() throws IOException {
+        List<JsonNode> records = log.getUncompacted();
+        if (records.isEmpty()) {
+            return 0;
+        }
+        byte[] content = append(Files.readAllBytes(gamesFile.toPath()), records);
+        log.checkpoint(records.size(), content);
+        File tempFile = File.createTempFile("." + gamesFile.getName(), ".tmp", gamesFile.getAbsoluteFile().getParentFile());
+        try {
+            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+                fos.write(content);
+                fos.getFD().sync();
+            }
+            OutputPublisher.move(tempFile, gamesFile);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+        log.truncate(records.size());
+        return records.size();
+    }
+
+    // Stops accepting records, and compacts and regenerates for those that are still pending.
+    @Override
+    public void close() throws IOException {
+        // Records queued before this are committed, and their batch scheduled, once it completes.
+        try {
+            log.append(Collections.emptyList()).join();
+        } catch (CompletionException e) {
+            // The log failed; what it did commit is still compacted below.
+        }
+        synchronized (batchLock) {
+            stopped = true;
+            batchLock.notifyAll();
+        }
+        if (batcher.isAlive()) {
+            try {
+                batcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            runBatch();
+        }
+        log.close();
+    }
+
+    private void committed() {
+        synchronized (batchLock) {
+            // The window is not extended by later results, so a steady stream of them is
+            // still published every window.
+            if (batchDeadline == 0) {
+                batchDeadline = System.currentTimeMillis() + windowMillis;
+                batchLock.notifyAll();
+            }
+        }
+    }
+
+    private void runBatches() {
+        boolean last = false;
+        while (!last) {
+            synchronized (batchLock) {
+                try {
+                    while (!stopped) {
+                        long remaining = batchDeadline == 0 ? 0 : batchDeadline - System.currentTimeMillis();
+                        if (batchDeadline != 0 && remaining <= 0) {
+                            break;
+                        }
+                        batchLock.wait(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (batchDeadline == 0) {
+                    return;
+                }
+                batchDeadline = 0;
+                last = stopped;
+            }
+            runBatch();
+        }
+    }
+
+    private void runBatch() {
+        long start = System.nanoTime();
+        int count;
+        try {
+            count = compact();
+        } catch (IOException e) {
+            // The records stay in the log; the next batch tries again.
+            status.failure("compaction", "Compaction failed", e);
+            committed();
+            return;
+        }
+        if (count == 0) {
+            return;
+        }
+        try {
+            regeneration.regenerate();
+            status.info("Regenerated for " + count + " results in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (Exception e) {
+            status.failure("regeneration", "Regeneration failed", e);
+        }
+    }
+
+    // Responses are one line each.
+    private static String reason(Throwable e) {
+        return String.valueOf(e.getMessage()).replaceAll("\\s*\\R\\s*", " ");
+    }
+
+    private static void respond(PrintStream out, String response) {
+        synchronized (out) {
+            out.println(response);
+            out.flush();
+        }
+    }
+
+    private byte[] append(byte[] content, List<JsonNode> records) throws IOException {
+        int end = lastNonWhitespace(content, content.length);
+        if (end < 0 || content[end] != ']') {
+            throw new IOException("Games file must contain a JSON array: " + gamesFile);
+        }
+        int previous = lastNonWhitespace(content, end);
+        ByteArrayOutputStream result = new ByteArrayOutputStream(content.length + records.size() * 256);
+        result.write(content, 0, previous + 1);
+        for (int i = 0; i < records.size(); i++) {
+            String separator = i > 0 || content[previous] != '[' ? ",\n" : "\n";
+            result.write(separator.getBytes(StandardCharsets.UTF_8));
+            result.write(mapper.writeValueAsBytes(records.get(i)));
+        }
+        result.write("\n]\n".getBytes(StandardCharsets.UTF_8));
+        return result.toByteArray();
+    }
+
+    private static int lastNonWhitespace(byte[] bytes, int before) {
+        int i = before - 1;
+        while (i >= 0 && (bytes[i] == ' ' || bytes[i] == '\t' || bytes[i] == '\r' || bytes[i] == '\n')) {
+            i--;
+        }
+        return i;
+    }
+
+    public interface GameMapperSource {
+        ObjectMapper get() throws IOException;
+    }
+}
@@ -0,0 +1,275 @@
+package ru.appliedtech.chess.playoffsite.ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import ru.appliedtech.chess.playoffsite.metrics.StatusLog;
+import ru.appliedtech.chess.playoffsite.output.OutputPublisher;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+// Accepted game records that have not reached the games file yet, one JSON line each.
+// Any number of threads append; a single writer takes everything waiting at once and
+// syncs it with one force, so results submitted together share one fsync.
+public class WriteAheadLog implements Closeable {
+    private static final String GAME = "game";
+    private static final String COMPACTED = "compacted";
+    private static final String GAMES_LENGTH = "gamesLength";
+    private static final String GAMES_CHECKSUM = "gamesChecksum";
+
+    private final File file;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BlockingQueue<Append> queue = new LinkedBlockingQueue<>();
+    // Ends the writer once everything queued before it is committed.
+    private final Append stop = new Append(Collections.emptyList());
+    private final List<JsonNode> uncompacted = new ArrayList<>();
+    private final Runnable committed;
+    private final StatusLog status;
+    private final Thread writer;
+    private FileChannel channel;
+    private boolean closed;
+    // Set when the log could not be restored to its committed records; fails every later append.
+    private IOException broken;
+
+    // Recovers the log: records a completed compaction already moved into the games file are
+    // dropped, and so is a last line that was torn while being written and never acknowledged.
+    public WriteAheadLog(File file, File gamesFile, Runnable committed, StatusLog status) throws IOException {
+        this.file = file;
+        this.committed = committed;
+        this.status = status;
+        if (file.isFile()) {
+            recover(gamesFile);
+        }
+        rewrite();
+        this.writer = new Thread(this::write, "playoff-site-wal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public CompletableFuture<Void> append(List<JsonNode> records) {
+        Append append = new Append(records);
+        synchronized (queue) {
+            if (closed) {
+                append.future.completeExceptionally(new IOException("Write-ahead log is closed: " + file));
+            } else {
+                queue.add(append);
+            }
+        }
+        return append.future;
+    }
+
+    public CompletableFuture<Void> append(JsonNode record) {
+        return append(Collections.singletonList(record));
+    }
+
+    // Committed records in the order they were accepted.
+    public synchronized List<JsonNode> getUncompacted() {
+        return new ArrayList<>(uncompacted);
+    }
+
+    // Notes that the first count uncompacted records are about to be published as the given
+    // games file content. Should the process die before truncate(), recovery finds the new
+    // content in place and knows those records are in it.
+    public synchronized void checkpoint(int count, byte[] gamesContent) throws IOException {
+        checkUsable();
+        ObjectNode line = mapper.createObjectNode();
+        line.put(COMPACTED, count);
+        line.put(GAMES_LENGTH, gamesContent.length);
+        line.put(GAMES_CHECKSUM, checksum(gamesContent));
+        try {
+            channel.write(ByteBuffer.wrap(toLine(line)));
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            discard(e);
+            throw e;
+        }
+    }
+
+    // Drops the first count uncompacted records once the games file holds them.
+    public synchronized void truncate(int count) throws IOException {
+        checkUsable();
+        uncompacted.subList(0, count).clear();
+        try {
+            channel.close();
+            rewrite();
+        } catch (IOException | RuntimeException e) {
+            discard(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (queue) {
+            closed = true;
+            queue.add(stop);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            channel.close();
+        }
+    }
+
+    static long checksum(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        return crc.getValue();
+    }
+
+    private void write() {
+        List<Append> batch = new ArrayList<>();
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch);
+            stopped = batch.remove(stop);
+            int count = 0;
+            try {
+                checkUsable();
+                ByteArrayOutputStream lines = new ByteArrayOutputStream();
+                for (Append append : batch) {
+                    for (JsonNode record : append.records) {
+                        ObjectNode line = mapper.createObjectNode();
+                        line.set(GAME, record);
+                        lines.write(toLine(line));
+                        count++;
+                    }
+                }
+                synchronized (this) {
+                    try {
+                        channel.write(ByteBuffer.wrap(lines.toByteArray()));
+                        channel.force(false);
+                    } catch (IOException | RuntimeException e) {
+                        // Lines written before the failure were never acknowledged.
+                        discard(e);
+                        throw e;
+                    }
+                    for (Append append : batch) {
+                        uncompacted.addAll(append.records);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                batch.forEach(append -> append.future.completeExceptionally(e));
+                batch.clear();
+                continue;
+            }
+            batch.forEach(append -> append.future.complete(null));
+            batch.clear();
+            if (count > 0) {
+                try {
+                    committed.run();
+                } catch (RuntimeException e) {
+                    // The records are on disk and compacted with the next batch.
+                    status.failure("scheduling", "Scheduling of regeneration failed", e);
+                }
+            }
+        }
+    }
+
+    private void recover(File gamesFile) throws IOException {
+        byte[] gamesContent = gamesFile.isFile() ? Files.readAllBytes(gamesFile.toPath()) : new byte[0];
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).trim().isEmpty()) {
+                continue;
+            }
+            JsonNode line;
+            try {
+                line = mapper.readTree(lines.get(i));
+            } catch (IOException e) {
+                if (i == lines.size() - 1) {
+                    break;
+                }
+                throw new IOException("Corrupt write-ahead log " + file + " at line " + (i + 1), e);
+            }
+            if (line.has(GAME)) {
+                uncompacted.add(line.get(GAME));
+            } else if (line.has(COMPACTED)
+                    && line.get(GAMES_LENGTH).asLong() == gamesContent.length
+                    && line.get(GAMES_CHECKSUM).asLong() == checksum(gamesContent)) {
+                uncompacted.subList(0, Math.min(line.get(COMPACTED).asInt(), uncompacted.size())).clear();
+            }
+        }
+    }
+
+    private void checkUsable() throws IOException {
+        if (broken != null) {
+            throw new IOException("Write-ahead log is unusable: " + file, broken);
+        }
+    }
+
+    // Restores the log to the committed records after a failed write, so that neither a torn
+    // line nor lines that were reported as failed stay in it.
+    private void discard(Exception failure) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+        try {
+            rewrite();
+        } catch (IOException | RuntimeException e) {
+            broken = e instanceof IOException ? (IOException) e : new IOException(e);
+            broken.addSuppressed(failure);
+        }
+    }
+
+    // Replaces the log with the uncompacted records alone and opens it for appending.
+    private void rewrite() throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        //noinspection ResultOfMethodCallIgnored
+        dir.mkdirs();
+        File tempFile = File.createTempFile("." + file.getName(), ".tmp", dir);
+        try {
+            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+                for (JsonNode record : uncompacted) {
+                    ObjectNode line = mapper.createObjectNode();
+                    line.set(GAME, record);
+                    fos.write(toLine(line));
+                }
+                fos.getFD().sync();
+            }
+            OutputPublisher.move(tempFile, file);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private byte[] toLine(JsonNode line) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(line);
+        byte[] result = new byte[json.length + 1];
+        System.arraycopy(json, 0, result, 0, json.length);
+        result[json.length] = '\n';
+        return result;
+    }
+
+    private static final class Append {
+        private final List<JsonNode> records;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Append(List<JsonNode> records) {
+            this.records = records;
+        }
+    }
+}
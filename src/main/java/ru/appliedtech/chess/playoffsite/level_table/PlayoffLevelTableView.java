@@ -4,10 +4,13 @@ import ru.appliedtech.chess.Color;
 import ru.appliedtech.chess.Player;
 import ru.appliedtech.chess.TimeControlType;
 import ru.appliedtech.chess.TournamentDescription;
+import ru.appliedtech.chess.playoff.LevelSetup;
 import ru.appliedtech.chess.playoff.MatchScore;
 import ru.appliedtech.chess.playoff.PlayoffLevel;
 import ru.appliedtech.chess.playoff.PlayoffLevelTable;
 import ru.appliedtech.chess.playoffsite.model.*;
+import ru.appliedtech.chess.playoffsite.players.PlayerDirectory;
+import ru.appliedtech.chess.playoffsite.rating.LevelRatings;
 
 import java.math.BigDecimal;
 import java.text.MessageFormat;
@@ -15,27 +18,72 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static ru.appliedtech.chess.playoffsite.model.ScoreCellView.scoreToString;
 
 public class PlayoffLevelTableView {
+    private static final String PLAYER_STYLE = "text-center fixed-square-player";
+    private static final String SCORE_STYLE = "text-center fixed-square-score";
+    private static final CellView EMPTY_PLAYER_CELL = new CellView("", PLAYER_STYLE);
+    private static final CellView NO_SCORE_CELL = new NoScoreCellView(SCORE_STYLE);
+    private static final CellView[] SCORE_CELLS = new CellView[QuarterPoints.MAX + 1];
+    private static final TimeControlType[] TIME_CONTROLS = TimeControlType.values();
+    private static final ConcurrentMap<String, HeaderRowView> HEADER_ROW_VIEWS = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0; i < SCORE_CELLS.length; i++) {
+            SCORE_CELLS[i] = new ScoreCellView(i, SCORE_STYLE);
+        }
+    }
+
+    private static final CellView WIN_CELL = SCORE_CELLS[4];
+    private static final CellView LOSE_CELL = SCORE_CELLS[0];
+
     private final ResourceBundle resourceBundle;
     private final TournamentDescription tournamentDescription;
+    private final PlayerDirectory playerDirectory;
+    private final LevelRatings levelRatings;
     private final HeaderRowView headerRowView;
     private final List<PlayerRowView> playerRowViews;
+    private final PlayoffLevel level;
     private final String levelDescription;
 
     public PlayoffLevelTableView(Locale locale,
                                  PlayoffLevelTable playoffLevelTable,
                                  TournamentDescription tournamentDescription) {
+        this(locale, playoffLevelTable, tournamentDescription, null);
+    }
+
+    public PlayoffLevelTableView(Locale locale,
+                                 PlayoffLevelTable playoffLevelTable,
+                                 TournamentDescription tournamentDescription,
+                                 PlayerDirectory playerDirectory) {
+        this(locale, playoffLevelTable, tournamentDescription, playerDirectory, null);
+    }
+
+    // With ratings, a rating and a rating change column follow the player column.
+    public PlayoffLevelTableView(Locale locale,
+                                 PlayoffLevelTable playoffLevelTable,
+                                 TournamentDescription tournamentDescription,
+                                 PlayerDirectory playerDirectory,
+                                 LevelRatings levelRatings) {
         this.resourceBundle = ResourceBundle.getBundle("resources", locale);
-        this.headerRowView = createHeaderRowView(playoffLevelTable);
+        this.playerDirectory = playerDirectory;
+        this.levelRatings = levelRatings;
+        this.headerRowView = createHeaderRowView(locale, playoffLevelTable);
         this.playerRowViews = createPlayerRowViews(playoffLevelTable);
-        this.levelDescription = constructLevelDescription(playoffLevelTable.getLevel());
+        this.level = playoffLevelTable.getLevel();
+        this.levelDescription = constructLevelDescription(level);
         this.tournamentDescription = tournamentDescription;
     }
 
     private String constructLevelDescription(PlayoffLevel level) {
+        return levelDescription(resourceBundle, level);
+    }
+
+    public static String levelDescription(ResourceBundle resourceBundle, PlayoffLevel level) {
         return resourceBundle.getString("playoff.table.view." + level.name().toLowerCase());
     }
 
@@ -51,14 +99,45 @@ public class PlayoffLevelTableView {
         return playerRowViews;
     }
 
+    public PlayoffLevel getLevel() {
+        return level;
+    }
+
     public String getLevelDescription() {
         return levelDescription;
     }
 
+    private String playerName(Player player) {
+        return playerDirectory != null
+                ? playerDirectory.getDisplayName(player)
+                : MessageFormat.format("{0} {1}", player.getFirstName(), player.getLastName());
+    }
+
+    private HeaderRowView createHeaderRowView(Locale locale, PlayoffLevelTable playoffLevelTable) {
+        // Header rows only depend on the locale and on the round counts of the level,
+        // and views never modify them, so one instance serves every matching level.
+        LevelSetup levelSetup = playoffLevelTable.getLevelSetup();
+        String key = locale + ":" + levelSetup.getClassicRounds()
+                + ":" + levelSetup.getRapidRounds()
+                + ":" + levelSetup.getBlitzRounds()
+                + ":" + levelSetup.hasArmageddon()
+                + ":" + (levelRatings != null);
+        HeaderRowView headerRowView = HEADER_ROW_VIEWS.get(key);
+        if (headerRowView == null) {
+            headerRowView = createHeaderRowView(playoffLevelTable);
+            HEADER_ROW_VIEWS.putIfAbsent(key, headerRowView);
+        }
+        return headerRowView;
+    }
+
     private HeaderRowView createHeaderRowView(PlayoffLevelTable playoffLevelTable) {
         List<HeaderCell> headerCells = new ArrayList<>();
 
         headerCells.add(new HeaderCell(resourceBundle.getString("playoff.table.view.header.player")));
+        if (levelRatings != null) {
+            headerCells.add(new HeaderCell(resourceBundle.getString("playoff.table.view.header.rating")));
+            headerCells.add(new HeaderCell(resourceBundle.getString("playoff.table.view.header.rating_change")));
+        }
         for (int i = 0; i < playoffLevelTable.getLevelSetup().getClassicRounds(); i++) {
             headerCells.add(new HeaderCell(
                     resourceBundle.getString("playoff.table.view.header.classic_round") + (i + 1)));
@@ -85,8 +164,8 @@ public class PlayoffLevelTableView {
     private List<PlayerRowView> createPlayerRowViews(PlayoffLevelTable playoffLevelTable) {
         List<PlayerRowView> rowViews = new ArrayList<>();
         if (playoffLevelTable.arePlayersAssigned()) {
-            rowViews.add(new PlayerRowView(createPlayerCells(playoffLevelTable, playoffLevelTable.getPlayer1())));
-            rowViews.add(new PlayerRowView(createPlayerCells(playoffLevelTable, playoffLevelTable.getPlayer2())));
+            rowViews.add(createPlayerRowView(playoffLevelTable, playoffLevelTable.getPlayer1()));
+            rowViews.add(createPlayerRowView(playoffLevelTable, playoffLevelTable.getPlayer2()));
         } else {
             rowViews.add(new PlayerRowView(createEmptyPlayerCells(playoffLevelTable, playoffLevelTable.getPlayer1())));
             rowViews.add(new PlayerRowView(createEmptyPlayerCells(playoffLevelTable, playoffLevelTable.getPlayer2())));
@@ -94,47 +173,21 @@ public class PlayoffLevelTableView {
         return rowViews;
     }
 
-    private List<CellView> createPlayerCells(PlayoffLevelTable playoffLevelTable, Player player) {
-        List<CellView> cells = new ArrayList<>();
-        String playerName = MessageFormat.format("{0} {1}",
-                player.getFirstName(), player.getLastName());
-        CellView playerCell = new CellView(playerName);
-        playerCell.setStyle("text-center fixed-square-player");
-        cells.add(playerCell);
+    private PlayerRowView createPlayerRowView(PlayoffLevelTable playoffLevelTable, Player player) {
+        LevelSetup levelSetup = playoffLevelTable.getLevelSetup();
+        List<CellView> cells = new ArrayList<>(levelSetup.getClassicRounds()
+                + levelSetup.getRapidRounds() + levelSetup.getBlitzRounds() + 6);
+        cells.add(new CellView(playerName(player), PLAYER_STYLE));
         String playerId = player.getId();
-        List<BigDecimal> classicScores = playoffLevelTable.getGameScores(playerId, TimeControlType.CLASSIC);
-        for (int i = 0; i < playoffLevelTable.getLevelSetup().getClassicRounds(); i++) {
-            CellView scoreCell;
-            if (i < classicScores.size()) {
-                scoreCell = new ScoreCellView(classicScores.get(i));
-            } else {
-                scoreCell = new NoScoreCellView();
-            }
-            scoreCell.setStyle("text-center fixed-square-score");
-            cells.add(scoreCell);
-        }
-        List<BigDecimal> rapidScores = playoffLevelTable.getGameScores(playerId, TimeControlType.RAPID);
-        for (int i = 0; i < playoffLevelTable.getLevelSetup().getRapidRounds(); i++) {
-            CellView scoreCell;
-            if (i < rapidScores.size()) {
-                scoreCell = new ScoreCellView(rapidScores.get(i));
-            } else {
-                scoreCell = new NoScoreCellView();
-            }
-            scoreCell.setStyle("text-center fixed-square-score");
-            cells.add(scoreCell);
-        }
-        List<BigDecimal> blitzScores = playoffLevelTable.getGameScores(playerId, TimeControlType.BLITZ);
-        for (int i = 0; i < playoffLevelTable.getLevelSetup().getBlitzRounds(); i++) {
-            CellView scoreCell;
-            if (i < blitzScores.size()) {
-                scoreCell = new ScoreCellView(blitzScores.get(i));
-            } else {
-                scoreCell = new NoScoreCellView();
-            }
-            scoreCell.setStyle("text-center fixed-square-score");
-            cells.add(scoreCell);
-        }
+        addRatingCells(cells, playerId);
+        // Scores are converted to quarter points once; cells for them come from a shared table.
+        int[][] quarterScores = new int[TIME_CONTROLS.length][];
+        quarterScores[TimeControlType.CLASSIC.ordinal()] = addScoreCells(cells,
+                playoffLevelTable.getGameScores(playerId, TimeControlType.CLASSIC), levelSetup.getClassicRounds());
+        quarterScores[TimeControlType.RAPID.ordinal()] = addScoreCells(cells,
+                playoffLevelTable.getGameScores(playerId, TimeControlType.RAPID), levelSetup.getRapidRounds());
+        quarterScores[TimeControlType.BLITZ.ordinal()] = addScoreCells(cells,
+                playoffLevelTable.getGameScores(playerId, TimeControlType.BLITZ), levelSetup.getBlitzRounds());
         String armageddonColorMark = playoffLevelTable.getArmageddonColor(playerId)
                 .map(c -> c == Color.white
                         ? resourceBundle.getString("playoff.table.view.armageddon.white")
@@ -142,68 +195,54 @@ public class PlayoffLevelTableView {
                 .map(m -> "(" + m +")")
                 .orElse("");
         CellView armageddonScoreCell = playoffLevelTable.getArmageddonScore(playerId)
-                .map(score -> new CellView(scoreToString(score) + " " + armageddonColorMark))
-                .orElse(new NoScoreCellView());
-        armageddonScoreCell.setStyle("text-center fixed-square-score");
+                .map(score -> new CellView(scoreToString(score) + " " + armageddonColorMark, SCORE_STYLE))
+                .orElse(NO_SCORE_CELL);
         cells.add(armageddonScoreCell);
-        ScoreCellView totalScoreCell = new ScoreCellView(playoffLevelTable.getTotalScore(playerId));
-        totalScoreCell.setStyle("text-center fixed-square-score");
-        cells.add(totalScoreCell);
-        CellView winCell;
-        if (playoffLevelTable.isWin(playerId) == MatchScore.win) {
-            winCell = new ScoreCellView(BigDecimal.ONE);
-        } else if (playoffLevelTable.isWin(playerId) == MatchScore.lose) {
-            winCell = new ScoreCellView(BigDecimal.ZERO);
+        BigDecimal totalScore = playoffLevelTable.getTotalScore(playerId);
+        int totalQuarters = QuarterPoints.of(totalScore);
+        cells.add(scoreCell(totalQuarters, totalScore));
+        MatchScore matchScore = playoffLevelTable.isWin(playerId);
+        if (matchScore == MatchScore.win) {
+            cells.add(WIN_CELL);
+        } else if (matchScore == MatchScore.lose) {
+            cells.add(LOSE_CELL);
         } else {
-            winCell = new NoScoreCellView();
+            cells.add(NO_SCORE_CELL);
         }
-        winCell.setStyle("text-center fixed-square-score");
-        cells.add(winCell);
-        return cells;
+        return new PlayerRowView(cells, quarterScores, totalQuarters);
     }
 
-    private List<CellView> createEmptyPlayerCells(PlayoffLevelTable playoffLevelTable, Player player) {
-        List<CellView> cells = new ArrayList<>();
-        if (player != null) {
-            String playerName = MessageFormat.format("{0} {1}",
-                    player.getFirstName(), player.getLastName());
-            CellView cell = new CellView(playerName);
-            cell.setStyle("text-center fixed-square-player");
-            cells.add(cell);
-        } else {
-            CellView cell = new CellView("");
-            cell.setStyle("text-center fixed-square-player");
-            cells.add(cell);
-        }
-        for (int i = 0; i < playoffLevelTable.getLevelSetup().getClassicRounds(); i++) {
-            NoScoreCellView cell = new NoScoreCellView();
-            cell.setStyle("text-center fixed-square-score");
-            cells.add(cell);
-        }
-        for (int i = 0; i < playoffLevelTable.getLevelSetup().getRapidRounds(); i++) {
-            NoScoreCellView cell = new NoScoreCellView();
-            cell.setStyle("text-center fixed-square-score");
-            cells.add(cell);
-        }
-        for (int i = 0; i < playoffLevelTable.getLevelSetup().getBlitzRounds(); i++) {
-            NoScoreCellView cell = new NoScoreCellView();
-            cell.setStyle("text-center fixed-square-score");
-            cells.add(cell);
+    private static int[] addScoreCells(List<CellView> cells, List<BigDecimal> scores, int rounds) {
+        int[] quarters = QuarterPoints.of(scores, rounds);
+        for (int i = 0; i < rounds; i++) {
+            cells.add(i < scores.size() ? scoreCell(quarters[i], scores.get(i)) : NO_SCORE_CELL);
         }
-        {
-            NoScoreCellView cell = new NoScoreCellView();
-            cell.setStyle("text-center fixed-square-score");
-            cells.add(cell);
-        }
-        {
-            NoScoreCellView cell = new NoScoreCellView();
-            cell.setStyle("text-center fixed-square-score");
-            cells.add(cell);
-        }
-        {
-            NoScoreCellView cell = new NoScoreCellView();
-            cell.setStyle("text-center fixed-square-score");
-            cells.add(cell);
+        return quarters;
+    }
+
+    // Scores that are no multiple of a quarter keep the BigDecimal formatting.
+    private static CellView scoreCell(int quarters, BigDecimal score) {
+        return quarters >= 0 ? SCORE_CELLS[quarters] : new ScoreCellView(score, SCORE_STYLE);
+    }
+
+    private void addRatingCells(List<CellView> cells, String playerId) {
+        if (levelRatings == null) {
+            return;
+        }
+        BigDecimal rating = playerId != null ? levelRatings.getRating(playerId) : null;
+        BigDecimal change = playerId != null ? levelRatings.getChange(playerId) : null;
+        cells.add(rating != null ? new RatingCellView(rating, SCORE_STYLE) : NO_SCORE_CELL);
+        cells.add(change != null ? RatingCellView.change(change, SCORE_STYLE) : NO_SCORE_CELL);
+    }
+
+    private List<CellView> createEmptyPlayerCells(PlayoffLevelTable playoffLevelTable, Player player) {
+        LevelSetup levelSetup = playoffLevelTable.getLevelSetup();
+        int scoreCells = levelSetup.getClassicRounds() + levelSetup.getRapidRounds() + levelSetup.getBlitzRounds() + 3;
+        List<CellView> cells = new ArrayList<>(scoreCells + 3);
+        cells.add(player != null ? new CellView(playerName(player), PLAYER_STYLE) : EMPTY_PLAYER_CELL);
+        addRatingCells(cells, player != null ? player.getId() : null);
+        for (int i = 0; i < scoreCells; i++) {
+            cells.add(NO_SCORE_CELL);
         }
         return cells;
     }
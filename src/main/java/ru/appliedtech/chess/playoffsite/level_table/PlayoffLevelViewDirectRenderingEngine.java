@@ -0,0 +1,99 @@
+package ru.appliedtech.chess.playoffsite.level_table;
+
+import ru.appliedtech.chess.playoffsite.model.CellView;
+import ru.appliedtech.chess.playoffsite.model.HeaderCell;
+import ru.appliedtech.chess.playoffsite.model.PlayerRowView;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+public class PlayoffLevelViewDirectRenderingEngine implements PlayoffLevelViewRenderingEngine {
+    private static final String TABLE_START =
+            "<table class=\"table table-bordered table-hover\">\n" +
+            "    <caption style=\"text-align: left;caption-side: top\">\n" +
+            "        <h3>";
+    private static final String CAPTION_END =
+            "</h3>\n" +
+            "    </caption>\n" +
+            "    <thead class=\"thead-light\">\n" +
+            "    <tr>\n";
+    private static final String HEADER_CELL_START = "            <th class=\"text-center\">";
+    private static final String HEADER_CELL_END = "</th>\n";
+    private static final String HEADER_END =
+            "    </tr>\n" +
+            "    </thead>\n" +
+            "    <tbody>\n";
+    private static final String ROW_START = "        <tr>\n";
+    private static final String STYLED_CELL_START = "                    <td class=\"";
+    private static final String STYLED_CELL_START_END = "\">\n";
+    private static final String DEFAULT_CELL_START = "                    <td class=\"text-center fixed-square\">\n";
+    private static final String LINK_START = "                        <a href=\"";
+    private static final String LINK_MIDDLE = "\">";
+    private static final String LINK_END = "</a>\n";
+    private static final String VALUE_START = "                        ";
+    private static final String VALUE_END = "\n";
+    private static final String CELL_END = "                </td>\n";
+    private static final String ROW_END = "        </tr>\n";
+    private static final String TABLE_END =
+            "    </tbody>\n" +
+            "</table>\n";
+
+    @Override
+    public void render(PlayoffLevelTableView playoffLevelTableView, Writer writer) throws IOException {
+        writer.write(TABLE_START);
+        writeValue(playoffLevelTableView.getLevelDescription(), "levelDescription", writer);
+        writer.write(CAPTION_END);
+        List<HeaderCell> headerCells = playoffLevelTableView.getHeaderRowView().getCells();
+        for (int i = 0; i < headerCells.size(); i++) {
+            writer.write(HEADER_CELL_START);
+            writeValue(headerCells.get(i).getValue(), "headerCell.value", writer);
+            writer.write(HEADER_CELL_END);
+        }
+        writer.write(HEADER_END);
+        List<PlayerRowView> playerRows = playoffLevelTableView.getPlayerRowViews();
+        for (int i = 0; i < playerRows.size(); i++) {
+            writer.write(ROW_START);
+            List<CellView> cells = playerRows.get(i).getCells();
+            for (int j = 0; j < cells.size(); j++) {
+                writeCell(cells.get(j), writer);
+            }
+            writer.write(ROW_END);
+        }
+        writer.write(TABLE_END);
+        writer.flush();
+    }
+
+    private static void writeCell(CellView cell, Writer writer) throws IOException {
+        String style = cell.getStyle();
+        if (style != null) {
+            writer.write(STYLED_CELL_START);
+            writer.write(style);
+            writer.write(STYLED_CELL_START_END);
+        } else {
+            writer.write(DEFAULT_CELL_START);
+        }
+        String link = cell.getLink();
+        if (link != null) {
+            writer.write(LINK_START);
+            writer.write(link);
+            writer.write(LINK_MIDDLE);
+            writeValue(cell.getValue(), "cell.value", writer);
+            writer.write(LINK_END);
+        } else {
+            writer.write(VALUE_START);
+            writeValue(cell.getValue(), "cell.value", writer);
+            writer.write(VALUE_END);
+        }
+        writer.write(CELL_END);
+    }
+
+    private static void writeValue(String value, String name, Writer writer) throws IOException {
+        // Like playoffLevelTable.ftl, values are not escaped: score cells carry character
+        // references such as &#189;. Interpolating a missing value fails there as well.
+        if (value == null) {
+            throw new IOException("Value of " + name + " is null");
+        }
+        writer.write(value);
+    }
+}
@@ -0,0 +1,110 @@
+package ru.appliedtech.chess.playoffsite.level_table;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import ru.appliedtech.chess.playoffsite.model.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+public class PlayoffLevelViewJsonRenderingEngine implements PlayoffLevelViewRenderingEngine {
+    private final JsonFactory jsonFactory;
+
+    public PlayoffLevelViewJsonRenderingEngine() {
+        this(new JsonFactory());
+    }
+
+    public PlayoffLevelViewJsonRenderingEngine(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public void render(PlayoffLevelTableView playoffLevelTableView, Writer writer) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("level", String.valueOf(playoffLevelTableView.getLevel()));
+            generator.writeStringField("levelDescription", playoffLevelTableView.getLevelDescription());
+            generator.writeArrayFieldStart("header");
+            for (HeaderCell headerCell : playoffLevelTableView.getHeaderRowView().getCells()) {
+                generator.writeString(decodeCharacterReferences(headerCell.getValue()));
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("rows");
+            for (PlayerRowView playerRow : playoffLevelTableView.getPlayerRowViews()) {
+                generator.writeStartArray();
+                List<CellView> cells = playerRow.getCells();
+                for (int i = 0; i < cells.size(); i++) {
+                    writeCell(cells.get(i), generator);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        writer.flush();
+    }
+
+    private static void writeCell(CellView cell, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", typeOf(cell));
+        generator.writeStringField("value", decodeCharacterReferences(cell.getValue()));
+        if (cell.getStyle() != null) {
+            generator.writeStringField("style", cell.getStyle());
+        }
+        if (cell.getLink() != null) {
+            generator.writeStringField("link", cell.getLink());
+        }
+        if (cell.getColspan() != 1) {
+            generator.writeNumberField("colspan", cell.getColspan());
+        }
+        if (cell.getRowspan() != 1) {
+            generator.writeNumberField("rowspan", cell.getRowspan());
+        }
+        generator.writeEndObject();
+    }
+
+    private static String typeOf(CellView cell) {
+        if (cell instanceof ScoreCellView) {
+            return "score";
+        }
+        if (cell instanceof NoScoreCellView) {
+            return "empty";
+        }
+        if (cell instanceof RatingCellView) {
+            return "rating";
+        }
+        return "text";
+    }
+
+    // Cell values are HTML: scores carry numeric character references such as &#189;,
+    // which JSON clients should receive as the characters themselves.
+    static String decodeCharacterReferences(String value) {
+        if (value == null || value.indexOf("&#") < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            int start = value.indexOf("&#", i);
+            int end = start >= 0 ? value.indexOf(';', start) : -1;
+            if (start < 0 || end < 0) {
+                break;
+            }
+            result.append(value, i, start);
+            String digits = value.substring(start + 2, end);
+            try {
+                int codePoint = digits.startsWith("x") || digits.startsWith("X")
+                        ? Integer.parseInt(digits.substring(1), 16)
+                        : Integer.parseInt(digits);
+                result.appendCodePoint(codePoint);
+            } catch (IllegalArgumentException e) {
+                result.append(value, start, end + 1);
+            }
+            i = end + 1;
+        }
+        result.append(value, i, value.length());
+        return result.toString();
+    }
+}
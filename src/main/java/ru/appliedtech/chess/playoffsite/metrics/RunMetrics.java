@@ -0,0 +1,150 @@
+package ru.appliedtech.chess.playoffsite.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RunMetrics {
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+    private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+    private final Map<Stage, StageTotals> totals = new EnumMap<>(Stage.class);
+    private final Map<String, AtomicLong> counts = new LinkedHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+
+    public RunMetrics() {
+        for (Stage stage : Stage.values()) {
+            totals.put(stage, new StageTotals());
+        }
+    }
+
+    public StageTimer start(Stage stage) {
+        return start(stage, null);
+    }
+
+    public StageTimer start(Stage stage, String subject) {
+        return new StageTimer(stage, subject);
+    }
+
+    public void count(String name, long value) {
+        synchronized (counts) {
+            counts.computeIfAbsent(name, n -> new AtomicLong()).addAndGet(value);
+        }
+    }
+
+    public Map<String, Object> toReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startMillis);
+        report.put("wallMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        report.put("allocationTracking", ALLOCATION_BEAN != null);
+        synchronized (counts) {
+            for (Map.Entry<String, AtomicLong> count : counts.entrySet()) {
+                report.put(count.getKey(), count.getValue().get());
+            }
+        }
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (Map.Entry<Stage, StageTotals> entry : totals.entrySet()) {
+            StageTotals stageTotals = entry.getValue();
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("count", stageTotals.count.sum());
+            // Stages run on several threads, so their times may add up to more than the wall time.
+            stage.put("millis", TimeUnit.NANOSECONDS.toMillis(stageTotals.nanos.sum()));
+            stage.put("allocatedBytes", stageTotals.allocatedBytes.sum());
+            stages.put(entry.getKey().getReportName(), stage);
+        }
+        report.put("stages", stages);
+        return report;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION_BEAN != null ? ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+                if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                    return allocationBean;
+                }
+            }
+        } catch (LinkageError | RuntimeException e) {
+            // Not a HotSpot-compatible JVM: stages are timed without allocation figures.
+        }
+        return null;
+    }
+
+    private static boolean isJfrAvailable() {
+        // Java 8 runtimes before 8u262 have no jdk.jfr; StageEvent must not be loaded there.
+        try {
+            Class.forName("jdk.jfr.Event", false, RunMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static final class StageTotals {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+    }
+
+    public final class StageTimer implements AutoCloseable {
+        private final Stage stage;
+        private final String subject;
+        private final long startNanos;
+        private final long startAllocatedBytes;
+        private final Object event;
+
+        private StageTimer(Stage stage, String subject) {
+            this.stage = stage;
+            this.subject = subject;
+            this.event = JFR_AVAILABLE ? JfrEvents.begin() : null;
+            this.startAllocatedBytes = allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            long nanos = System.nanoTime() - startNanos;
+            long allocated = allocatedBytes() - startAllocatedBytes;
+            StageTotals stageTotals = totals.get(stage);
+            stageTotals.count.increment();
+            stageTotals.nanos.add(nanos);
+            stageTotals.allocatedBytes.add(allocated);
+            if (event != null) {
+                JfrEvents.commit(event, stage, subject, allocated);
+            }
+        }
+    }
+
+    private static final class JfrEvents {
+        private static Object begin() {
+            StageEvent event = new StageEvent();
+            if (!event.isEnabled()) {
+                return null;
+            }
+            event.begin();
+            return event;
+        }
+
+        private static void commit(Object event, Stage stage, String subject, long allocatedBytes) {
+            StageEvent stageEvent = (StageEvent) event;
+            stageEvent.end();
+            if (stageEvent.shouldCommit()) {
+                stageEvent.stage = stage.getReportName();
+                stageEvent.subject = subject;
+                stageEvent.allocatedBytes = allocatedBytes;
+                stageEvent.commit();
+            }
+        }
+    }
+}
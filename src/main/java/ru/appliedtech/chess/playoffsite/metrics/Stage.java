@@ -0,0 +1,20 @@
+package ru.appliedtech.chess.playoffsite.metrics;
+
+public enum Stage {
+    INPUT_LOAD("inputLoad"),
+    TABLE_BUILD("tableBuild"),
+    VIEW_BUILD("viewBuild"),
+    LEVEL_RENDER("levelRender"),
+    INDEX_RENDER("indexRender"),
+    OUTPUT_WRITE("outputWrite");
+
+    private final String reportName;
+
+    Stage(String reportName) {
+        this.reportName = reportName;
+    }
+
+    public String getReportName() {
+        return reportName;
+    }
+}
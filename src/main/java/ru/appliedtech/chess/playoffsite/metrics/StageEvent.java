@@ -0,0 +1,25 @@
+package ru.appliedtech.chess.playoffsite.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ru.appliedtech.chess.playoffsite.Stage")
+@Label("Playoff Site Stage")
+@Category("Playoff Site")
+@Description("A stage of a playoff site generation run")
+class StageEvent extends Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Subject")
+    @Description("Level or file the stage worked on")
+    String subject;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,46 @@
+package ru.appliedtech.chess.playoffsite.metrics;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Status of the long-running modes, shared by the threads that watch, ingest and regenerate.
+// Lines go to standard error, so that standard output stays free for the ingest protocol;
+// failures are logged with their stack trace and counted per kind for the run report.
+public class StatusLog {
+    private final PrintStream out;
+    private final Map<String, Long> failures = new LinkedHashMap<>();
+
+    public StatusLog() {
+        this(System.err);
+    }
+
+    public StatusLog(PrintStream out) {
+        this.out = out;
+    }
+
+    public void info(String message) {
+        synchronized (out) {
+            out.println(message);
+            out.flush();
+        }
+    }
+
+    public void failure(String kind, String message, Throwable e) {
+        synchronized (failures) {
+            failures.merge(kind, 1L, Long::sum);
+        }
+        synchronized (out) {
+            out.println(message);
+            e.printStackTrace(out);
+            out.flush();
+        }
+    }
+
+    // Failures since the process started, per kind.
+    public Map<String, Long> getFailures() {
+        synchronized (failures) {
+            return new LinkedHashMap<>(failures);
+        }
+    }
+}
@@ -5,21 +5,30 @@ public class CellView {
     private final String link;
     private final int colspan;
     private final int rowspan;
-    private String style;
+    private final String style;
 
     public CellView(String value) {
         this(value, 1, 1);
     }
 
+    public CellView(String value, String style) {
+        this(value, null, 1, 1, style);
+    }
+
     public CellView(String value, int colspan, int rowspan) {
         this(value, null, colspan, rowspan);
     }
 
     public CellView(String value, String link, int colspan, int rowspan) {
+        this(value, link, colspan, rowspan, null);
+    }
+
+    public CellView(String value, String link, int colspan, int rowspan, String style) {
         this.value = value;
         this.link = link;
         this.colspan = colspan;
         this.rowspan = rowspan;
+        this.style = style;
     }
 
     public String getValue() {
@@ -43,11 +52,14 @@ public class CellView {
         return value;
     }
 
-    public void setStyle(String style) {
-        this.style = style;
-    }
-
     public String getStyle() {
         return style;
     }
+
+    // Cells are immutable, so views can be shared and cached; pass the style to the constructor.
+    @Deprecated
+    public void setStyle(String style) {
+        throw new UnsupportedOperationException(
+                "CellView is immutable; pass the style to new CellView(value, style) or its longer constructor");
+    }
 }
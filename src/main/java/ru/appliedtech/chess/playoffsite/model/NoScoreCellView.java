@@ -5,6 +5,10 @@ public class NoScoreCellView extends CellView {
         this(1, 1);
     }
 
+    public NoScoreCellView(String style) {
+        super("", null, 1, 1, style);
+    }
+
     public NoScoreCellView(int colspan, int rowspan) {
         super("", colspan, rowspan);
     }
@@ -1,9 +1,31 @@
 package ru.appliedtech.chess.playoffsite.model;
 
+import ru.appliedtech.chess.TimeControlType;
+
 import java.util.List;
 
 public class PlayerRowView extends RowView<CellView>  {
+    private static final int[] NO_SCORES = new int[0];
+
+    private final int[][] quarterScores;
+    private final int totalQuarters;
+
     public PlayerRowView(List<CellView> cells) {
+        this(cells, null, QuarterPoints.NONE);
+    }
+
+    // Quarter scores are indexed by the ordinal of their time control and shared, not copied.
+    public PlayerRowView(List<CellView> cells, int[][] quarterScores, int totalQuarters) {
         super(cells);
+        this.quarterScores = quarterScores;
+        this.totalQuarters = totalQuarters;
+    }
+
+    public int[] getQuarterScores(TimeControlType timeControlType) {
+        return quarterScores != null ? quarterScores[timeControlType.ordinal()] : NO_SCORES;
+    }
+
+    public int getTotalQuarters() {
+        return totalQuarters;
     }
 }
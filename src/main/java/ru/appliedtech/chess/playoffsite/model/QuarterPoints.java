@@ -0,0 +1,78 @@
+package ru.appliedtech.chess.playoffsite.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.ZERO;
+
+public final class QuarterPoints {
+    public static final int NONE = -1;
+    public static final int MAX = 400;
+
+    private static final BigDecimal FOUR = BigDecimal.valueOf(4);
+    private static final BigDecimal ONE_FOURTH = new BigDecimal("0.25");
+    private static final BigDecimal ONE_HALF = new BigDecimal("0.5");
+    private static final BigDecimal THREE_QUARTERS = new BigDecimal("0.75");
+    private static final String[] STRINGS = new String[MAX + 1];
+
+    static {
+        for (int i = 0; i < STRINGS.length; i++) {
+            STRINGS[i] = format(toBigDecimal(i));
+        }
+    }
+
+    private QuarterPoints() {
+    }
+
+    // Returns the score in quarter points, or NONE when it is negative, above MAX or not
+    // a multiple of a quarter. doubleValue() does not allocate, and for scale <= 2 a
+    // non-quarter value is at least 1/25 away from an integer number of quarters.
+    public static int of(BigDecimal value) {
+        if (value == null || value.signum() < 0 || value.scale() > 2) {
+            return NONE;
+        }
+        double quarters = value.doubleValue() * 4;
+        if (quarters > MAX || quarters != Math.rint(quarters)) {
+            return NONE;
+        }
+        return (int) quarters;
+    }
+
+    // Encodes the scores of one player in one time control; rounds not played yet are NONE.
+    public static int[] of(List<BigDecimal> scores, int rounds) {
+        int[] quarters = new int[rounds];
+        for (int i = 0; i < rounds; i++) {
+            quarters[i] = i < scores.size() ? of(scores.get(i)) : NONE;
+        }
+        return quarters;
+    }
+
+    public static BigDecimal toBigDecimal(int quarters) {
+        return BigDecimal.valueOf(quarters).divide(FOUR);
+    }
+
+    public static String toString(int quarters) {
+        return STRINGS[quarters];
+    }
+
+    static String format(BigDecimal value) {
+        String result;
+        BigDecimal wholePart = new BigDecimal(value.intValue());
+        String wholePartString = wholePart.toBigInteger().toString();
+        BigDecimal fraction = value.remainder(ONE);
+        boolean zero = wholePart.compareTo(ZERO) == 0;
+        if (fraction.compareTo(ZERO) == 0) {
+            result = wholePartString;
+        } else if (fraction.compareTo(ONE_HALF) == 0) {
+            result = (zero ? "" : wholePartString) + "&#189;";
+        } else if (fraction.compareTo(ONE_FOURTH) == 0) {
+            result = (zero ? "" : wholePartString) + "&#188;";
+        } else if (fraction.compareTo(THREE_QUARTERS) == 0) {
+            result = (zero ? "" : wholePartString) + "&#190;";
+        } else {
+            result = value.toString();
+        }
+        return result;
+    }
+}
@@ -7,7 +7,20 @@ public class RatingCellView extends CellView {
         this(value, 1, 1);
     }
 
+    public RatingCellView(BigDecimal value, String style) {
+        this(String.valueOf(value), style);
+    }
+
     public RatingCellView(BigDecimal value, int colspan, int rowspan) {
         super(String.valueOf(value), colspan, rowspan);
     }
+
+    private RatingCellView(String value, String style) {
+        super(value, null, 1, 1, style);
+    }
+
+    // A rating change, shown with its sign.
+    public static RatingCellView change(BigDecimal change, String style) {
+        return new RatingCellView(change.signum() > 0 ? "+" + change : String.valueOf(change), style);
+    }
 }
@@ -2,53 +2,43 @@ package ru.appliedtech.chess.playoffsite.model;
 
 import java.math.BigDecimal;
 
-import static java.math.BigDecimal.ONE;
-import static java.math.BigDecimal.ZERO;
-
 public class ScoreCellView extends CellView {
-    public ScoreCellView(BigDecimal value) {
-        this(value, 1, 1);
-    }
+    private final int quarters;
 
-    public ScoreCellView(BigDecimal value, int colspan, int rowspan) {
-        super(scoreToString(value), colspan, rowspan);
+    public ScoreCellView(int quarters, String style) {
+        super(QuarterPoints.toString(checkQuarters(quarters)), null, 1, 1, style);
+        this.quarters = quarters;
     }
 
+    public ScoreCellView(BigDecimal value) {
+        this(value, 1, 1);
+    }
 
-    public static String scoreToString(BigDecimal value) {
-        String result;
-        BigDecimal wholePart = new BigDecimal(value.intValue());
-        String wholePartString = wholePart.toBigInteger().toString();
-        if (isWhole(value)) {
-            result = wholePartString;
-        } else if (hasHalf(value)) {
-            boolean zero = wholePart.compareTo(ZERO) == 0;
-            result = (zero ? "" : wholePartString) + "&#189;";
-        } else if (hasFourth(value)) {
-            boolean zero = wholePart.compareTo(ZERO) == 0;
-            result = (zero ? "" : wholePartString) + "&#188;";
-        } else if (hasThreeQuarters(value)) {
-            boolean zero = wholePart.compareTo(ZERO) == 0;
-            result = (zero ? "" : wholePartString) + "&#190;";
-        } else {
-            result = value.toString();
-        }
-        return result;
+    public ScoreCellView(BigDecimal value, String style) {
+        super(scoreToString(value), null, 1, 1, style);
+        this.quarters = QuarterPoints.of(value);
     }
 
-    private static boolean isWhole(BigDecimal value) {
-        return value.remainder(ONE).compareTo(ZERO) == 0;
+    public ScoreCellView(BigDecimal value, int colspan, int rowspan) {
+        super(scoreToString(value), colspan, rowspan);
+        this.quarters = QuarterPoints.of(value);
     }
 
-    private static boolean hasHalf(BigDecimal value) {
-        return value.remainder(ONE).compareTo(new BigDecimal(0.5)) == 0;
+    // The score in quarter points, or QuarterPoints.NONE for a score that has none.
+    public int getQuarters() {
+        return quarters;
     }
 
-    private static boolean hasFourth(BigDecimal value) {
-        return value.remainder(ONE).compareTo(new BigDecimal(0.25)) == 0;
+    public static String scoreToString(BigDecimal value) {
+        int quarters = QuarterPoints.of(value);
+        return quarters >= 0 ? QuarterPoints.toString(quarters) : QuarterPoints.format(value);
     }
 
-    private static boolean hasThreeQuarters(BigDecimal value) {
-        return value.remainder(ONE).compareTo(new BigDecimal(0.75)) == 0;
+    // Scores without quarter points are built from their BigDecimal value instead.
+    private static int checkQuarters(int quarters) {
+        if (quarters < 0 || quarters > QuarterPoints.MAX) {
+            throw new IllegalArgumentException("Not a score in quarter points: " + quarters);
+        }
+        return quarters;
     }
 }
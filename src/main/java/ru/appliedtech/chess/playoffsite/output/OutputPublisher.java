@@ -0,0 +1,235 @@
+package ru.appliedtech.chess.playoffsite.output;
+
+import ru.appliedtech.chess.playoffsite.Digests;
+import ru.appliedtech.chess.playoffsite.metrics.RunMetrics;
+import ru.appliedtech.chess.playoffsite.metrics.Stage;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+public class OutputPublisher implements Closeable {
+    public static final int NO_COMPRESSION = -1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int gzipLevel;
+    private final ExecutorService executor;
+    private final List<Future<Boolean>> pending = new ArrayList<>();
+    private final RunMetrics metrics;
+
+    public OutputPublisher(int gzipLevel, int threads) {
+        this(gzipLevel, threads, new RunMetrics());
+    }
+
+    public OutputPublisher(int gzipLevel, int threads, RunMetrics metrics) {
+        if (gzipLevel != NO_COMPRESSION && (gzipLevel < 1 || gzipLevel > 9)) {
+            throw new IllegalArgumentException("Invalid gzip level: " + gzipLevel);
+        }
+        this.gzipLevel = gzipLevel;
+        this.metrics = metrics;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "playoff-site-output");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Temporary files live next to their target, so that publishing them is a rename
+    // within one file system.
+    public File createTempFile(File target) throws IOException {
+        File dir = target.getAbsoluteFile().getParentFile();
+        //noinspection ResultOfMethodCallIgnored
+        dir.mkdirs();
+        return File.createTempFile("." + target.getName(), ".tmp", dir);
+    }
+
+    public void publish(File target, byte[] content) throws IOException {
+        File tempFile = createTempFile(target);
+        try {
+            Files.write(tempFile.toPath(), content);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+        publish(target, tempFile);
+    }
+
+    // Takes over the temporary file: compression, the comparison with the published
+    // file and the rename happen in the background while rendering goes on.
+    public void publish(File target, File tempFile) {
+        synchronized (pending) {
+            pending.add(executor.submit(() -> publishNow(target, tempFile)));
+        }
+    }
+
+    // Waits for everything published so far; returns the number of files actually replaced.
+    public int await() throws IOException {
+        List<Future<Boolean>> futures;
+        synchronized (pending) {
+            futures = new ArrayList<>(pending);
+            pending.clear();
+        }
+        int published = 0;
+        IOException failure = null;
+        for (Future<Boolean> future : futures) {
+            try {
+                if (future.get()) {
+                    published++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Publishing of output files was interrupted");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                IOException exception = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return published;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            await();
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean publishNow(File target, File tempFile) throws IOException {
+        try (RunMetrics.StageTimer ignored = metrics.start(Stage.OUTPUT_WRITE, target.getName())) {
+            return compressAndMove(target, tempFile);
+        }
+    }
+
+    private boolean compressAndMove(File target, File tempFile) throws IOException {
+        File gzipTarget = new File(target.getPath() + ".gz");
+        File gzipTempFile = null;
+        try {
+            // Unchanged files keep their modification time, so CDN and browser caches stay valid.
+            boolean unchanged = sameContent(tempFile, target);
+            if (gzipLevel == NO_COMPRESSION) {
+                // A sibling left by an earlier compressed run would be served instead of the page.
+                boolean removed = Files.deleteIfExists(gzipTarget.toPath());
+                if (!unchanged) {
+                    move(tempFile, target);
+                }
+                return removed || !unchanged;
+            }
+            gzipTempFile = createTempFile(gzipTarget);
+            gzip(tempFile, gzipTempFile, gzipLevel);
+            // Compression is deterministic, so an unchanged page keeps a sibling compressed
+            // at the current level and is rebuilt when the level changed.
+            if (unchanged && sameContent(gzipTempFile, gzipTarget)) {
+                return false;
+            }
+            // The compressed sibling goes first, so it is never older than the page.
+            move(gzipTempFile, gzipTarget);
+            if (!unchanged) {
+                move(tempFile, target);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+            if (gzipTempFile != null) {
+                Files.deleteIfExists(gzipTempFile.toPath());
+            }
+        }
+    }
+
+    // Deletes the files of a directory this run did not publish, such as pages of shards or
+    // asset bundles that are no longer produced, together with their compressed siblings.
+    public int removeStale(File dir, Collection<File> published) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        Set<File> kept = new HashSet<>();
+        for (File file : published) {
+            kept.add(file.getAbsoluteFile());
+            kept.add(new File(file.getAbsolutePath() + ".gz"));
+        }
+        int removed = 0;
+        for (File file : files) {
+            // Temporary files belong to publishing still in progress.
+            if (file.isFile() && !file.getName().startsWith(".") && !kept.contains(file.getAbsoluteFile())) {
+                Files.delete(file.toPath());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static boolean sameContent(File file, File target) throws IOException {
+        if (!target.isFile() || file.length() != target.length()) {
+            return false;
+        }
+        return Arrays.equals(hash(file), hash(target));
+    }
+
+    public static byte[] hash(File file) throws IOException {
+        MessageDigest digest = Digests.sha256();
+        try (InputStream is = new DigestInputStream(new FileInputStream(file), digest)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            //noinspection StatementWithEmptyBody
+            while (is.read(buffer) != -1) {
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void gzip(File source, File target, int level) throws IOException {
+        try (InputStream is = new FileInputStream(source);
+             OutputStream os = new GZIPOutputStream(new FileOutputStream(target), BUFFER_SIZE) {
+                 {
+                     def.setLevel(level);
+                 }
+             }) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                os.write(buffer, 0, read);
+            }
+        }
+    }
+
+    // Replaces the target atomically where the file system allows it.
+    public static void move(File source, File target) throws IOException {
+        Path sourcePath = source.toPath();
+        Path targetPath = target.toPath();
+        try {
+            Files.move(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ru.appliedtech.chess.playoffsite.patches;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.appliedtech.chess.playoffsite.LevelViewListener;
+import ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelTableView;
+import ru.appliedtech.chess.playoffsite.model.CellView;
+import ru.appliedtech.chess.playoffsite.model.PlayerRowView;
+import ru.appliedtech.chess.playoffsite.output.OutputPublisher;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.*;
+
+// Remembers the cells of every level table between runs and publishes the cells that changed
+// as sequence-numbered patches: patches/<sequence>.json, announced by patches/latest.json.
+public class CellPatchTracker implements LevelViewListener {
+    public static final String PATCHES_DIR_NAME = "patches";
+    private static final String STATE_FILE_NAME = "state.json";
+    private static final String LATEST_FILE_NAME = "latest.json";
+    private static final int STATE_VERSION = 1;
+    private static final int KEPT_PATCHES = 100;
+
+    private final File patchesDir;
+    private final ObjectMapper mapper;
+    private final long previousSequence;
+    // Whether latest.json existed, i.e. pages of previousSequence may be open in browsers.
+    private final boolean announced;
+    private final List<List<List<List<String>>>> previousLevels;
+    private final Map<Integer, List<List<List<String>>>> currentLevels = new HashMap<>();
+
+    private CellPatchTracker(File patchesDir, ObjectMapper mapper, long previousSequence, boolean announced,
+                             List<List<List<List<String>>>> previousLevels) {
+        this.patchesDir = patchesDir;
+        this.mapper = mapper;
+        this.previousSequence = previousSequence;
+        this.announced = announced;
+        this.previousLevels = previousLevels;
+    }
+
+    public static CellPatchTracker load(File outputDir) {
+        ObjectMapper mapper = new ObjectMapper();
+        File patchesDir = new File(outputDir, PATCHES_DIR_NAME);
+        File stateFile = new File(patchesDir, STATE_FILE_NAME);
+        if (stateFile.isFile()) {
+            try (FileInputStream fis = new FileInputStream(stateFile)) {
+                State state = mapper.readValue(fis, State.class);
+                if (state.version == STATE_VERSION && state.levels != null) {
+                    return new CellPatchTracker(patchesDir, mapper, state.sequence, true, state.levels);
+                }
+            } catch (IOException e) {
+                // Without a usable state the next patch asks clients to reload.
+            }
+        }
+        long latestSequence = 0;
+        File latestFile = new File(patchesDir, LATEST_FILE_NAME);
+        if (latestFile.isFile()) {
+            try {
+                latestSequence = mapper.readTree(latestFile).path("sequence").asLong();
+            } catch (IOException e) {
+                latestSequence = 0;
+            }
+        }
+        return new CellPatchTracker(patchesDir, mapper, latestSequence, latestFile.isFile(), null);
+    }
+
+    // Levels served from the fragment cache are not rebuilt and keep their previous cells,
+    // which only works once a previous state exists.
+    public boolean hasPreviousState() {
+        return previousLevels != null;
+    }
+
+    @Override
+    public void viewBuilt(int index, PlayoffLevelTableView view) {
+        List<List<List<String>>> rows = new ArrayList<>();
+        for (PlayerRowView playerRow : view.getPlayerRowViews()) {
+            List<List<String>> cells = new ArrayList<>();
+            for (CellView cell : playerRow.getCells()) {
+                cells.add(Arrays.asList(cell.getValue(), cell.getStyle(), cell.getLink()));
+            }
+            rows.add(cells);
+        }
+        synchronized (currentLevels) {
+            currentLevels.put(index, rows);
+        }
+    }
+
+    // Publishes the patch of this run, if anything changed, and returns the sequence number
+    // the generated pages correspond to.
+    public long publish(int levelCount, OutputPublisher publisher) throws IOException {
+        List<List<List<List<String>>>> levels = new ArrayList<>();
+        synchronized (currentLevels) {
+            for (int i = 0; i < levelCount; i++) {
+                List<List<List<String>>> rows = currentLevels.get(i);
+                if (rows == null && previousLevels != null && i < previousLevels.size()) {
+                    rows = previousLevels.get(i);
+                }
+                levels.add(rows != null ? rows : Collections.emptyList());
+            }
+        }
+        if (previousLevels == null && !announced) {
+            // Pages generated from now on are the base that patches apply to.
+            publishState(levels, previousSequence, publisher);
+            return previousSequence;
+        }
+        Patch patch = new Patch();
+        patch.sequence = previousSequence + 1;
+        // Pages of earlier sequences may still be open, but their state is lost.
+        patch.reload = previousLevels == null || !diff(previousLevels, levels, patch.changes);
+        if (!patch.reload && patch.changes.isEmpty()) {
+            return previousSequence;
+        }
+        if (patch.reload) {
+            patch.changes = null;
+        }
+        // The patch has to be in place before latest.json announces it.
+        publisher.publish(new File(patchesDir, patch.sequence + ".json"), mapper.writeValueAsBytes(patch));
+        publisher.await();
+        publishState(levels, patch.sequence, publisher);
+        deleteOldPatches(patch.sequence);
+        return patch.sequence;
+    }
+
+    private void publishState(List<List<List<List<String>>>> levels, long sequence, OutputPublisher publisher) throws IOException {
+        State state = new State();
+        state.version = STATE_VERSION;
+        state.sequence = sequence;
+        state.levels = levels;
+        publisher.publish(new File(patchesDir, STATE_FILE_NAME), mapper.writeValueAsBytes(state));
+        Map<String, Long> latest = new LinkedHashMap<>();
+        latest.put("sequence", sequence);
+        publisher.publish(new File(patchesDir, LATEST_FILE_NAME), mapper.writeValueAsBytes(latest));
+    }
+
+    // Returns false when the tables changed shape, which cell patches cannot express.
+    private static boolean diff(List<List<List<List<String>>>> previous,
+                                List<List<List<List<String>>>> current,
+                                List<List<Object>> changes) {
+        if (previous.size() != current.size()) {
+            return false;
+        }
+        for (int level = 0; level < current.size(); level++) {
+            List<List<List<String>>> previousRows = previous.get(level);
+            List<List<List<String>>> rows = current.get(level);
+            if (previousRows.size() != rows.size()) {
+                return false;
+            }
+            for (int row = 0; row < rows.size(); row++) {
+                List<List<String>> previousCells = previousRows.get(row);
+                List<List<String>> cells = rows.get(row);
+                if (previousCells.size() != cells.size()) {
+                    return false;
+                }
+                for (int column = 0; column < cells.size(); column++) {
+                    List<String> cell = cells.get(column);
+                    if (!cell.equals(previousCells.get(column))) {
+                        changes.add(Arrays.asList(level, row, column, cell.get(0), cell.get(1), cell.get(2)));
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void deleteOldPatches(long sequence) {
+        File[] files = patchesDir.listFiles((dir, name) -> name.matches("\\d+\\.json(\\.gz)?"));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            long fileSequence = Long.parseLong(name.substring(0, name.indexOf('.')));
+            if (fileSequence <= sequence - KEPT_PATCHES) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+    }
+
+    public static final class State {
+        @JsonProperty("version")
+        private int version;
+        @JsonProperty("sequence")
+        private long sequence;
+        @JsonProperty("levels")
+        private List<List<List<List<String>>>> levels;
+    }
+
+    public static final class Patch {
+        @JsonProperty("sequence")
+        private long sequence;
+        @JsonProperty("reload")
+        private boolean reload;
+        // Each change is [level, row, column, value, style, link].
+        @JsonProperty("changes")
+        private List<List<Object>> changes = new ArrayList<>();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.appliedtech.chess.playoffsite.players;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.appliedtech.chess.Player;
+import ru.appliedtech.chess.TournamentDescription;
+import ru.appliedtech.chess.storage.PlayerReadOnlyStorage;
+import ru.appliedtech.chess.storage.PlayerStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+import static java.util.Collections.unmodifiableList;
+
+public class PlayerDirectory {
+    private final List<Player> players;
+    private final Map<String, Player> playersById;
+    private final Map<String, String> displayNames;
+    private final List<Player> registeredPlayers;
+
+    public PlayerDirectory(List<Player> players, TournamentDescription tournamentDescription) {
+        this.players = unmodifiableList(new ArrayList<>(players));
+        this.playersById = new HashMap<>(players.size() * 2);
+        this.displayNames = new HashMap<>(players.size() * 2);
+        for (Player player : players) {
+            if (player.getId() != null && !playersById.containsKey(player.getId())) {
+                playersById.put(player.getId(), player);
+                displayNames.put(player.getId(), player.getFirstName() + " " + player.getLastName());
+            }
+        }
+        List<Player> registered = new ArrayList<>();
+        addInOrder(tournamentDescription.getPlayers(), registered);
+        addInOrder(tournamentDescription.getJoinedPlayers(), registered);
+        this.registeredPlayers = unmodifiableList(registered);
+    }
+
+    public static PlayerDirectory read(InputStream is,
+                                       ObjectMapper baseMapper,
+                                       TournamentDescription tournamentDescription) throws IOException {
+        List<Player> players = baseMapper.readValue(is, new TypeReference<ArrayList<Player>>() {});
+        return new PlayerDirectory(players, tournamentDescription);
+    }
+
+    private void addInOrder(List<String> ids, List<Player> result) {
+        if (ids == null) {
+            return;
+        }
+        Set<String> added = new HashSet<>();
+        for (String id : ids) {
+            Player player = playersById.get(id);
+            if (player != null && added.add(id)) {
+                result.add(player);
+            }
+        }
+    }
+
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    public List<Player> getRegisteredPlayers() {
+        return registeredPlayers;
+    }
+
+    public PlayerStorage toPlayerStorage() {
+        return new PlayerReadOnlyStorage(registeredPlayers);
+    }
+
+    public Player getPlayer(String id) {
+        return id != null ? playersById.get(id) : null;
+    }
+
+    public String getDisplayName(String id) {
+        String displayName = id != null ? displayNames.get(id) : null;
+        return displayName != null ? displayName : id;
+    }
+
+    public String getDisplayName(Player player) {
+        String displayName = player.getId() != null ? displayNames.get(player.getId()) : null;
+        return displayName != null ? displayName : player.getFirstName() + " " + player.getLastName();
+    }
+}
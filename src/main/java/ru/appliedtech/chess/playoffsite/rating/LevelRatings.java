@@ -0,0 +1,35 @@
+package ru.appliedtech.chess.playoffsite.rating;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LevelRatings {
+    private final Map<String, BigDecimal> ratings = new HashMap<>();
+    private final Map<String, BigDecimal> changes = new HashMap<>();
+
+    void put(String playerId, BigDecimal rating, BigDecimal change) {
+        ratings.put(playerId, round(rating));
+        changes.put(playerId, round(change));
+    }
+
+    // The current rating of the player, after every game applied so far.
+    public BigDecimal getRating(String playerId) {
+        return ratings.get(playerId);
+    }
+
+    // How much the games of this level changed the rating of the player.
+    public BigDecimal getChange(String playerId) {
+        return changes.get(playerId);
+    }
+
+    // Identifies the displayed values, so that cached fragments showing others are not reused.
+    public String fingerprint(String player1Id, String player2Id) {
+        return getRating(player1Id) + "/" + getChange(player1Id) + ":" + getRating(player2Id) + "/" + getChange(player2Id);
+    }
+
+    private static BigDecimal round(BigDecimal value) {
+        return value.setScale(0, RoundingMode.HALF_UP);
+    }
+}
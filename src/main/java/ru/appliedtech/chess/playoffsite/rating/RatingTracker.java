@@ -0,0 +1,298 @@
+package ru.appliedtech.chess.playoffsite.rating;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.appliedtech.chess.TimeControlType;
+import ru.appliedtech.chess.elorating.EloRating;
+import ru.appliedtech.chess.elorating.EloRatingChange;
+import ru.appliedtech.chess.playoff.PlayoffLevelTable;
+import ru.appliedtech.chess.playoffsite.LevelTables;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator.PlayoffLevelPlayersJsonRecord;
+import ru.appliedtech.chess.playoffsite.model.QuarterPoints;
+import ru.appliedtech.chess.playoffsite.output.OutputPublisher;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.*;
+
+// Keeps running Elo ratings of the players in ratings/state.json, calculated by the elorating
+// library. Each run applies only the games that levels gained since the previous one, with the
+// same result as applying the whole history again, which happens when a result that was
+// already applied changed.
+public class RatingTracker {
+    public static final String RATINGS_DIR_NAME = "ratings";
+    public static final BigDecimal INITIAL_RATING = new BigDecimal(1500);
+    public static final int K_FACTOR = 20;
+    private static final String STATE_FILE_NAME = "state.json";
+    private static final BigDecimal QUARTERS_PER_POINT = new BigDecimal(4);
+    // Version 1 applied games in the order they arrived in, version 2 calculated ratings itself.
+    private static final int STATE_VERSION = 3;
+    private static final String ARMAGEDDON = "ARMAGEDDON";
+
+    private final File stateFile;
+    private final ObjectMapper mapper;
+    private State state;
+    private final Map<Integer, LevelRatings> levels = new HashMap<>();
+
+    private RatingTracker(File stateFile, ObjectMapper mapper, State state) {
+        this.stateFile = stateFile;
+        this.mapper = mapper;
+        this.state = state;
+    }
+
+    public static RatingTracker load(File outputDir) {
+        ObjectMapper mapper = new ObjectMapper();
+        File stateFile = new File(new File(outputDir, RATINGS_DIR_NAME), STATE_FILE_NAME);
+        if (stateFile.isFile()) {
+            try (FileInputStream fis = new FileInputStream(stateFile)) {
+                State state = mapper.readValue(fis, State.class);
+                if (state.version == STATE_VERSION && state.ratings != null && state.matches != null) {
+                    return new RatingTracker(stateFile, mapper, state);
+                }
+            } catch (IOException e) {
+                // A broken state only means that the whole history is applied again.
+            }
+        }
+        return new RatingTracker(stateFile, mapper, new State());
+    }
+
+    // Applies the games that are new since the previous run and returns how many were applied.
+    public int update(LevelTables levelTables) {
+        List<PlayoffLevelPlayersJsonRecord> records = levelTables.getPlayoffLevelPlayers();
+        List<Map<String, List<Integer>>> results = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            PlayoffLevelTable table = levelTables.get(i);
+            results.add(table.arePlayersAssigned() ? results(table) : null);
+        }
+        return update(records, results);
+    }
+
+    // Results are those of the first player of each level in quarter points, per time control
+    // name and ARMAGEDDON in round order, or null for a level whose players are not assigned.
+    //
+    // Ratings are always those of applying every game in one canonical order: by stage, time
+    // control, round, and then match. Games of different players commute, so new games are
+    // applied on top of the stored state as long as none of them precedes, in that order, a
+    // game already applied to one of its players; otherwise the whole history is applied again.
+    public int update(List<PlayoffLevelPlayersJsonRecord> records, List<Map<String, List<Integer>>> results) {
+        Set<String> keys = new HashSet<>();
+        boolean consistent = true;
+        for (int i = 0; i < records.size(); i++) {
+            Map<String, List<Integer>> levelResults = results.get(i);
+            if (levelResults != null) {
+                String key = key(records.get(i));
+                keys.add(key);
+                MatchState match = state.matches.get(key);
+                if (match != null && !isPrefix(match.games, levelResults)) {
+                    consistent = false;
+                }
+            }
+        }
+        // Games of a match that is gone were applied as well.
+        if (!consistent || !keys.containsAll(state.matches.keySet())) {
+            state = new State();
+        }
+        List<PendingGame> pending = pendingGames(records, results);
+        if (pending == null) {
+            state = new State();
+            pending = pendingGames(records, results);
+        }
+        for (PendingGame game : pending) {
+            PlayoffLevelPlayersJsonRecord record = records.get(game.index);
+            MatchState match = state.matches.computeIfAbsent(key(record), key -> new MatchState());
+            apply(record, match, game.quarters);
+            match.games.computeIfAbsent(game.timeControlName, type -> new ArrayList<>()).add(game.quarters);
+        }
+        // Current ratings move with every applied game, so they are read after all of them.
+        levels.clear();
+        for (int i = 0; i < records.size(); i++) {
+            if (results.get(i) != null) {
+                PlayoffLevelPlayersJsonRecord record = records.get(i);
+                MatchState match = state.matches.computeIfAbsent(key(record), key -> new MatchState());
+                LevelRatings levelRatings = new LevelRatings();
+                levelRatings.put(record.getPlayer1(), rating(record.getPlayer1()), match.change1);
+                levelRatings.put(record.getPlayer2(), rating(record.getPlayer2()), match.change2);
+                levels.put(i, levelRatings);
+            }
+        }
+        return pending.size();
+    }
+
+    // The games not applied yet in canonical order, or null when one of them precedes a game
+    // already applied to one of its players.
+    private List<PendingGame> pendingGames(List<PlayoffLevelPlayersJsonRecord> records,
+                                           List<Map<String, List<Integer>>> results) {
+        Map<String, PendingGame> lastApplied = new HashMap<>();
+        List<PendingGame> pending = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            Map<String, List<Integer>> levelResults = results.get(i);
+            if (levelResults == null) {
+                continue;
+            }
+            PlayoffLevelPlayersJsonRecord record = records.get(i);
+            MatchState match = state.matches.get(key(record));
+            for (Map.Entry<String, List<Integer>> entry : levelResults.entrySet()) {
+                List<Integer> appliedGames = match != null
+                        ? match.games.getOrDefault(entry.getKey(), Collections.emptyList())
+                        : Collections.<Integer>emptyList();
+                List<Integer> games = entry.getValue();
+                for (int round = 0; round < games.size(); round++) {
+                    PendingGame game = new PendingGame(i, record, entry.getKey(), round, games.get(round));
+                    if (round < appliedGames.size()) {
+                        lastApplied.merge(record.getPlayer1(), game, PendingGame::later);
+                        lastApplied.merge(record.getPlayer2(), game, PendingGame::later);
+                    } else {
+                        pending.add(game);
+                    }
+                }
+            }
+        }
+        Collections.sort(pending);
+        for (PendingGame game : pending) {
+            PlayoffLevelPlayersJsonRecord record = records.get(game.index);
+            PendingGame last1 = lastApplied.get(record.getPlayer1());
+            PendingGame last2 = lastApplied.get(record.getPlayer2());
+            if ((last1 != null && last1.compareTo(game) > 0) || (last2 != null && last2.compareTo(game) > 0)) {
+                return null;
+            }
+        }
+        return pending;
+    }
+
+    // Levels whose players are not assigned yet have no ratings to show.
+    public LevelRatings get(int index) {
+        LevelRatings levelRatings = levels.get(index);
+        return levelRatings != null ? levelRatings : new LevelRatings();
+    }
+
+    public void save() throws IOException {
+        state.version = STATE_VERSION;
+        File dir = stateFile.getParentFile();
+        //noinspection ResultOfMethodCallIgnored
+        dir.mkdirs();
+        File tempFile = File.createTempFile(STATE_FILE_NAME, ".tmp", dir);
+        try {
+            mapper.writeValue(tempFile, state);
+            OutputPublisher.move(tempFile, stateFile);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private void apply(PlayoffLevelPlayersJsonRecord record, MatchState match, int quarters) {
+        EloRating rating1 = new EloRating(record.getPlayer1(), rating(record.getPlayer1()));
+        EloRating rating2 = new EloRating(record.getPlayer2(), rating(record.getPlayer2()));
+        BigDecimal score1 = new BigDecimal(quarters).divide(QUARTERS_PER_POINT);
+        BigDecimal change1 = EloRatingChange.calculate(rating1, rating2, score1, K_FACTOR).getValue();
+        BigDecimal change2 = EloRatingChange.calculate(rating2, rating1, BigDecimal.ONE.subtract(score1), K_FACTOR).getValue();
+        state.ratings.put(record.getPlayer1(), rating1.getValue().add(change1));
+        state.ratings.put(record.getPlayer2(), rating2.getValue().add(change2));
+        match.change1 = match.change1.add(change1);
+        match.change2 = match.change2.add(change2);
+    }
+
+    private BigDecimal rating(String playerId) {
+        BigDecimal rating = state.ratings.get(playerId);
+        return rating != null ? rating : INITIAL_RATING;
+    }
+
+    // Results of the first player in quarter points, per time control in round order.
+    private static Map<String, List<Integer>> results(PlayoffLevelTable table) {
+        String playerId = table.getPlayer1().getId();
+        Map<String, List<Integer>> results = new LinkedHashMap<>();
+        for (TimeControlType timeControlType : TimeControlType.values()) {
+            List<Integer> games = new ArrayList<>();
+            for (BigDecimal score : table.getGameScores(playerId, timeControlType)) {
+                addResult(games, score);
+            }
+            results.put(timeControlType.name(), games);
+        }
+        List<Integer> armageddon = new ArrayList<>();
+        table.getArmageddonScore(playerId).ifPresent(score -> addResult(armageddon, score));
+        results.put(ARMAGEDDON, armageddon);
+        return results;
+    }
+
+    private static void addResult(List<Integer> games, BigDecimal score) {
+        // A single game scores between 0 and 1; anything else is not a game result.
+        int quarters = QuarterPoints.of(score);
+        if (quarters >= 0 && quarters <= 4) {
+            games.add(quarters);
+        }
+    }
+
+    private static boolean isPrefix(Map<String, List<Integer>> applied, Map<String, List<Integer>> current) {
+        for (Map.Entry<String, List<Integer>> entry : applied.entrySet()) {
+            List<Integer> games = current.getOrDefault(entry.getKey(), Collections.emptyList());
+            List<Integer> appliedGames = entry.getValue();
+            if (appliedGames.size() > games.size() || !appliedGames.equals(games.subList(0, appliedGames.size()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(PlayoffLevelPlayersJsonRecord record) {
+        return record.getLevel() + ":" + record.getPlayer1() + ":" + record.getPlayer2();
+    }
+
+    private static final class State {
+        @JsonProperty("version")
+        private int version = STATE_VERSION;
+        @JsonProperty("ratings")
+        private TreeMap<String, BigDecimal> ratings = new TreeMap<>();
+        @JsonProperty("matches")
+        private TreeMap<String, MatchState> matches = new TreeMap<>();
+    }
+
+    private static final class MatchState {
+        @JsonProperty("games")
+        private TreeMap<String, List<Integer>> games = new TreeMap<>();
+        @JsonProperty("change1")
+        private BigDecimal change1 = BigDecimal.ZERO;
+        @JsonProperty("change2")
+        private BigDecimal change2 = BigDecimal.ZERO;
+    }
+
+    private static final class PendingGame implements Comparable<PendingGame> {
+        private final int index;
+        private final int stage;
+        private final int timeControl;
+        private final int round;
+        private final String match;
+        private final String timeControlName;
+        private final int quarters;
+
+        private PendingGame(int index, PlayoffLevelPlayersJsonRecord record, String timeControlName, int round, int quarters) {
+            this.index = index;
+            this.stage = record.getLevel().ordinal();
+            this.timeControl = ARMAGEDDON.equals(timeControlName)
+                    ? TimeControlType.values().length
+                    : TimeControlType.valueOf(timeControlName).ordinal();
+            this.round = round;
+            this.match = key(record);
+            this.timeControlName = timeControlName;
+            this.quarters = quarters;
+        }
+
+        private static PendingGame later(PendingGame game1, PendingGame game2) {
+            return game1.compareTo(game2) >= 0 ? game1 : game2;
+        }
+
+        @Override
+        public int compareTo(PendingGame other) {
+            int result = Integer.compare(stage, other.stage);
+            if (result == 0) {
+                result = Integer.compare(timeControl, other.timeControl);
+            }
+            if (result == 0) {
+                result = Integer.compare(round, other.round);
+            }
+            // Matches by key rather than by position, which changes when levels are reordered.
+            return result != 0 ? result : match.compareTo(other.match);
+        }
+    }
+}
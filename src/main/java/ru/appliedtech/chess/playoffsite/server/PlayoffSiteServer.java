@@ -0,0 +1,203 @@
+package ru.appliedtech.chess.playoffsite.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ru.appliedtech.chess.playoffsite.Digests;
+import ru.appliedtech.chess.playoffsite.GeneratedSite;
+import ru.appliedtech.chess.playoffsite.GeneratedSiteListener;
+import ru.appliedtech.chess.playoffsite.assets.AssetPipeline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+public class PlayoffSiteServer implements GeneratedSiteListener {
+    private static final String HTML_CONTENT_TYPE = "text/html; charset=UTF-8";
+    private static final String CSS_CONTENT_TYPE = "text/css; charset=UTF-8";
+    private static final String ASSETS_PATH = "/" + AssetPipeline.ASSETS_DIR_NAME + "/";
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final AtomicReference<Map<String, Page>> pages = new AtomicReference<>(Collections.emptyMap());
+
+    // Listens on the loopback interface only.
+    public PlayoffSiteServer(int port, int threads) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, threads);
+    }
+
+    public PlayoffSiteServer(InetAddress address, int port, int threads) throws IOException {
+        this.httpServer = HttpServer.create(new InetSocketAddress(address, port), 0);
+        this.executor = Executors.newFixedThreadPool(Math.max(2, threads));
+        this.httpServer.setExecutor(executor);
+        this.httpServer.createContext("/", this::handle);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void siteGenerated(GeneratedSite site) {
+        Map<String, Page> oldPages = pages.get();
+        Map<String, Page> newPages = new HashMap<>();
+        Page index = page(oldPages.get("/"), site.getIndex(), HTML_CONTENT_TYPE);
+        newPages.put("/", index);
+        newPages.put("/index.html", index);
+        List<String> fragments = site.getFragments();
+        for (int i = 0; i < fragments.size(); i++) {
+            String path = "/levels/" + i + ".html";
+            newPages.put(path, page(oldPages.get(path), fragments.get(i).getBytes(StandardCharsets.UTF_8), HTML_CONTENT_TYPE));
+        }
+        for (Map.Entry<String, byte[]> entry : site.getPages().entrySet()) {
+            String path = "/" + entry.getKey();
+            newPages.put(path, page(oldPages.get(path), entry.getValue(),
+                    path.endsWith(".css") ? CSS_CONTENT_TYPE : HTML_CONTENT_TYPE));
+        }
+        // Requests in flight keep the page set they started with.
+        pages.set(Collections.unmodifiableMap(newPages));
+    }
+
+    private static Page page(Page oldPage, byte[] body, String contentType) {
+        // Unchanged pages keep their compressed body and ETag from the previous generation.
+        if (oldPage != null && Arrays.equals(oldPage.body, body)) {
+            return oldPage;
+        }
+        return new Page(body, contentType);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            boolean head = "HEAD".equals(method);
+            if (!head && !"GET".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            Page page = pages.get().get(path);
+            if (page == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            Headers requestHeaders = exchange.getRequestHeaders();
+            boolean gzip = acceptsGzip(requestHeaders.getFirst("Accept-Encoding"));
+            String etag = gzip ? page.gzipEtag : page.etag;
+            Headers responseHeaders = exchange.getResponseHeaders();
+            responseHeaders.set("ETag", etag);
+            responseHeaders.set("Vary", "Accept-Encoding");
+            // Asset names carry a hash of their content, so they never change.
+            responseHeaders.set("Cache-Control", path.startsWith(ASSETS_PATH)
+                    ? "public, max-age=31536000, immutable"
+                    : "no-cache");
+            if (matches(requestHeaders.getFirst("If-None-Match"), etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            byte[] body = gzip ? page.gzipBody : page.body;
+            responseHeaders.set("Content-Type", page.contentType);
+            if (gzip) {
+                responseHeaders.set("Content-Encoding", "gzip");
+            }
+            responseHeaders.set("Content-Length", String.valueOf(body.length));
+            // The JDK server takes no length for a HEAD response: it logs a warning and sends
+            // no Content-Length from it, so HEAD passes -1 and relies on the header set above.
+            exchange.sendResponseHeaders(200, head ? -1 : body.length);
+            if (!head) {
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.equals("q=0") || parameter.matches("q=0\\.0*")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Page {
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String etag;
+        private final String gzipEtag;
+        private final String contentType;
+
+        private Page(byte[] body, String contentType) {
+            this.body = body;
+            this.gzipBody = gzip(body);
+            String hash = Digests.sha256Hex(body);
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+            this.contentType = contentType;
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(result) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return result.toByteArray();
+    }
+}
@@ -0,0 +1,192 @@
+package ru.appliedtech.chess.playoffsite.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A compact encoding of JSON trees: every distinct string (field names, player ids,
+// dates) is stored once in a table and referenced by index, numbers are stored
+// in binary, so decoding needs neither tokenizing nor number or UTF-8 parsing per value.
+public final class BinaryJson {
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte OBJECT = 6;
+    private static final byte ARRAY = 7;
+    private static final byte BIG_INTEGER = 8;
+    private static final byte BIG_DECIMAL = 9;
+
+    private BinaryJson() {
+    }
+
+    public static byte[] encode(JsonNode node) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        collectStrings(node, strings);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarInt(out, strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+        writeNode(node, strings, out);
+        return out.toByteArray();
+    }
+
+    public static JsonNode decode(ByteBuffer buffer) throws IOException {
+        try {
+            String[] strings = new String[readVarInt(buffer)];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[readVarInt(buffer)];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return readNode(buffer, strings, JsonNodeFactory.instance);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted binary JSON", e);
+        }
+    }
+
+    private static void collectStrings(JsonNode node, Map<String, Integer> strings) {
+        if (node.isTextual()) {
+            strings.putIfAbsent(node.textValue(), strings.size());
+        } else if (node.isBigInteger() || node.isBigDecimal()) {
+            strings.putIfAbsent(node.asText(), strings.size());
+        } else if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                strings.putIfAbsent(field.getKey(), strings.size());
+                collectStrings(field.getValue(), strings);
+            }
+        } else if (node.isArray()) {
+            for (JsonNode child : node) {
+                collectStrings(child, strings);
+            }
+        }
+    }
+
+    private static void writeNode(JsonNode node, Map<String, Integer> strings, ByteArrayOutputStream out) throws IOException {
+        if (node.isTextual()) {
+            out.write(STRING);
+            writeVarInt(out, strings.get(node.textValue()));
+        } else if (node.isBoolean()) {
+            out.write(node.booleanValue() ? TRUE : FALSE);
+        } else if (node.isBigInteger()) {
+            out.write(BIG_INTEGER);
+            writeVarInt(out, strings.get(node.asText()));
+        } else if (node.isBigDecimal()) {
+            out.write(BIG_DECIMAL);
+            writeVarInt(out, strings.get(node.asText()));
+        } else if (node.isIntegralNumber()) {
+            out.write(LONG);
+            writeLong(out, node.longValue());
+        } else if (node.isNumber()) {
+            out.write(DOUBLE);
+            writeLong(out, Double.doubleToRawLongBits(node.doubleValue()));
+        } else if (node.isObject()) {
+            out.write(OBJECT);
+            writeVarInt(out, node.size());
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                writeVarInt(out, strings.get(field.getKey()));
+                writeNode(field.getValue(), strings, out);
+            }
+        } else if (node.isArray()) {
+            out.write(ARRAY);
+            writeVarInt(out, node.size());
+            for (JsonNode child : node) {
+                writeNode(child, strings, out);
+            }
+        } else if (node.isNull() || node.isMissingNode()) {
+            out.write(NULL);
+        } else {
+            throw new IOException("Unsupported JSON node: " + node.getNodeType());
+        }
+    }
+
+    private static JsonNode readNode(ByteBuffer buffer, String[] strings, JsonNodeFactory factory) throws IOException {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return factory.nullNode();
+            case TRUE:
+                return factory.booleanNode(true);
+            case FALSE:
+                return factory.booleanNode(false);
+            case LONG: {
+                long value = buffer.getLong();
+                return value == (int) value ? factory.numberNode((int) value) : factory.numberNode(value);
+            }
+            case DOUBLE:
+                return factory.numberNode(Double.longBitsToDouble(buffer.getLong()));
+            case STRING:
+                return factory.textNode(strings[readVarInt(buffer)]);
+            case BIG_INTEGER:
+                return factory.numberNode(new BigInteger(strings[readVarInt(buffer)]));
+            case BIG_DECIMAL:
+                return factory.numberNode(new BigDecimal(strings[readVarInt(buffer)]));
+            case OBJECT: {
+                ObjectNode object = factory.objectNode();
+                int size = readVarInt(buffer);
+                for (int i = 0; i < size; i++) {
+                    String name = strings[readVarInt(buffer)];
+                    object.set(name, readNode(buffer, strings, factory));
+                }
+                return object;
+            }
+            case ARRAY: {
+                ArrayNode array = factory.arrayNode();
+                int size = readVarInt(buffer);
+                for (int i = 0; i < size; i++) {
+                    array.add(readNode(buffer, strings, factory));
+                }
+                return array;
+            }
+            default:
+                throw new IOException("Unknown binary JSON tag: " + tag);
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            out.write((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            result |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed variable-length integer");
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+}
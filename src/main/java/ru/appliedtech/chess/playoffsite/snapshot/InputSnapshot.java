@@ -0,0 +1,208 @@
+package ru.appliedtech.chess.playoffsite.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import ru.appliedtech.chess.playoffsite.Digests;
+import ru.appliedtech.chess.playoffsite.output.OutputPublisher;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Parsed inputs of the previous run, keyed by the size and SHA-256 of each input file. The
+// format is versioned; a snapshot of another version is ignored and rewritten.
+public class InputSnapshot {
+    public static final String FILE_NAME = "playoff-snapshot.bin";
+    private static final int MAGIC = 0x50534e50;
+    private static final int FORMAT_VERSION = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private boolean dirty;
+
+    private InputSnapshot(File file) {
+        this.file = file;
+    }
+
+    public static InputSnapshot load(File dir) {
+        InputSnapshot snapshot = new InputSnapshot(new File(dir, FILE_NAME));
+        if (snapshot.file.isFile()) {
+            try {
+                snapshot.read();
+            } catch (IOException | RuntimeException e) {
+                // A damaged snapshot only costs a full parse.
+                snapshot.entries.clear();
+                snapshot.dirty = true;
+            }
+        }
+        return snapshot;
+    }
+
+    // Returns the entry stored for the input, whether or not the file has changed since.
+    public synchronized Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    // Returns the entry if the input file still has the content it was taken from, null
+    // otherwise. The content is always hashed: a size and time that match prove nothing
+    // about a file rewritten within the time resolution of the file system.
+    public Entry lookup(String name, File input) throws IOException {
+        Entry entry = getEntry(name);
+        if (entry == null || !input.isFile() || input.length() != entry.length) {
+            return null;
+        }
+        return Arrays.equals(OutputPublisher.hash(input), entry.hash) ? entry : null;
+    }
+
+    // Stores what was parsed from the content, unless the file changed while it was being
+    // read; the next run then reads it again.
+    public void put(String name, File input, Content content, JsonNode tree, long offset, long checksum) throws IOException {
+        if (!content.isUnchanged(input)) {
+            return;
+        }
+        Entry entry = new Entry(content.bytes.length, content.getHash(), offset, checksum,
+                ByteBuffer.wrap(BinaryJson.encode(tree)));
+        synchronized (this) {
+            entries.put(name, entry);
+            dirty = true;
+        }
+    }
+
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        File tempFile = File.createTempFile("." + FILE_NAME, ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tempFile), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    Entry entry = e.getValue();
+                    out.writeUTF(e.getKey());
+                    out.writeLong(entry.length);
+                    out.write(entry.hash);
+                    out.writeLong(entry.offset);
+                    out.writeLong(entry.checksum);
+                    ByteBuffer payload = entry.payload.duplicate();
+                    out.writeInt(payload.remaining());
+                    byte[] bytes = new byte[payload.remaining()];
+                    payload.get(bytes);
+                    out.write(bytes);
+                }
+            }
+            OutputPublisher.move(tempFile, file);
+            dirty = false;
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private void read() throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            dirty = true;
+            return;
+        }
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort() & 0xffff];
+            buffer.get(name);
+            long length = buffer.getLong();
+            byte[] hash = new byte[32];
+            buffer.get(hash);
+            long offset = buffer.getLong();
+            long checksum = buffer.getLong();
+            int payloadLength = buffer.getInt();
+            // Payloads stay in the mapping and are decoded only when looked up.
+            ByteBuffer payload = buffer.slice();
+            payload.limit(payloadLength);
+            buffer.position(buffer.position() + payloadLength);
+            // Names are plain ASCII, so modified UTF-8 and UTF-8 agree.
+            entries.put(new String(name, StandardCharsets.UTF_8),
+                    new Entry(length, hash, offset, checksum, payload));
+        }
+    }
+
+    // The bytes of an input file, with its size and modification time taken before they
+    // were read, so that a file changed while being read is not stored as unchanged.
+    public static final class Content {
+        private final long length;
+        private final long lastModified;
+        private final byte[] bytes;
+        private byte[] hash;
+
+        private Content(long length, long lastModified, byte[] bytes) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.bytes = bytes;
+        }
+
+        public static Content read(File file) throws IOException {
+            long length = file.length();
+            long lastModified = file.lastModified();
+            return new Content(length, lastModified, Files.readAllBytes(file.toPath()));
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        // SHA-256 of the bytes that were read.
+        public synchronized byte[] getHash() {
+            if (hash == null) {
+                hash = Digests.sha256().digest(bytes);
+            }
+            return hash;
+        }
+
+        private boolean isUnchanged(File file) {
+            return bytes.length == length && file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+
+    public static final class Entry {
+        private final long length;
+        private final byte[] hash;
+        private final long offset;
+        private final long checksum;
+        private final ByteBuffer payload;
+
+        private Entry(long length, byte[] hash, long offset, long checksum, ByteBuffer payload) {
+            this.length = length;
+            this.hash = hash;
+            this.offset = offset;
+            this.checksum = checksum;
+            this.payload = payload;
+        }
+
+        // SHA-256 of the content the entry was taken from.
+        public byte[] getHash() {
+            return hash.clone();
+        }
+
+        public JsonNode getTree() throws IOException {
+            return BinaryJson.decode(payload.duplicate());
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+    }
+}
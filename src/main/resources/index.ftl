@@ -1,27 +1,6 @@
 <html lang="en">
-<head>
-    <title>${tournamentDescription.tournamentTitle}</title>
-    <meta charset="UTF-8">
-    <meta name="viewport" content="width=device-width, initial-scale=1, shrink-to-fit=no">
-    <link rel="stylesheet"
-          href="https://stackpath.bootstrapcdn.com/bootstrap/4.1.3/css/bootstrap.min.css"
-          integrity="sha384-MCw98/SFnGE8fJT3GXwEOngsV7Zt27NXFoaoApmYm81iuXoPkFOJwJ8ERdknLPMO"
-          crossorigin="anonymous">
-    <style>
-        .fixed-square {
-            min-width: 50px;
-            height: 50px;
-        }
-        .fixed-square-score {
-            width: 80px;
-            height: 50px;
-        }
-        .fixed-square-player {
-            width: 600px;
-            height: 50px;
-        }
-    </style>
-</head>
+<#assign pageTitle = tournamentDescription.tournamentTitle>
+<#include "head.ftl">
 <body>
 <div class="container">
 <h2>${tournamentDescription.tournamentTitle}</h2><br>
@@ -33,5 +12,8 @@
     <br>
 </#list>
 </div>
+<#if patchSequence??>
+<script src="playoff-live.js" data-sequence="${patchSequence}" defer></script>
+</#if>
 </body>
 </html>
\ No newline at end of file
@@ -0,0 +1,68 @@
+// Applies cell patches published next to the page, see CellPatchTracker.
+(function () {
+    var script = document.currentScript;
+    var sequence = parseInt(script.getAttribute("data-sequence"), 10);
+    var base = script.src.substring(0, script.src.lastIndexOf("/") + 1) + "patches/";
+    var interval = parseInt(script.getAttribute("data-interval") || "15000", 10);
+
+    function fetchJson(name) {
+        return fetch(base + name, {cache: "no-store"}).then(function (response) {
+            if (!response.ok) {
+                throw new Error(response.status + " " + name);
+            }
+            return response.json();
+        });
+    }
+
+    function apply(patch) {
+        if (patch.sequence !== sequence + 1 || patch.reload) {
+            throw new Error("reload");
+        }
+        var tables = document.querySelectorAll(".container > table");
+        patch.changes.forEach(function (change) {
+            var table = tables[change[0]];
+            var row = table && table.tBodies[0] && table.tBodies[0].rows[change[1]];
+            var cell = row && row.cells[change[2]];
+            if (!cell) {
+                throw new Error("reload");
+            }
+            // Values are the same markup the page was rendered with.
+            cell.className = change[4] || "text-center fixed-square";
+            cell.innerHTML = change[5] ? "<a href=\"" + change[5] + "\">" + change[3] + "</a>" : change[3];
+        });
+        sequence = patch.sequence;
+    }
+
+    function next(latest) {
+        if (latest < sequence) {
+            return Promise.reject(new Error("reload"));
+        }
+        if (sequence >= latest) {
+            return Promise.resolve();
+        }
+        return fetchJson((sequence + 1) + ".json").then(apply).then(function () {
+            return next(latest);
+        });
+    }
+
+    function poll() {
+        fetchJson("latest.json")
+            .then(function (latest) {
+                return next(latest.sequence);
+            })
+            .then(function () {
+                setTimeout(poll, interval);
+            }, function (error) {
+                // A missing patch, a gap or a change of the tables' shape: start over.
+                if (error.message === "reload" || /^404 /.test(error.message)) {
+                    location.reload();
+                } else {
+                    setTimeout(poll, interval);
+                }
+            });
+    }
+
+    if (window.fetch && window.Promise && !isNaN(sequence)) {
+        setTimeout(poll, interval);
+    }
+})();
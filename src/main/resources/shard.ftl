@@ -0,0 +1,24 @@
+<html lang="en">
+<#assign pageTitle = tournamentDescription.tournamentTitle + " - " + levelDescription>
+<#include "head.ftl">
+<body>
+<div class="container">
+<h2><a href="../index.html">${tournamentDescription.tournamentTitle}</a></h2><br>
+<#if pageCount gt 1>
+<nav>
+    <#list 1..pageCount as p>
+    <#if p == page>
+    <strong>${p}</strong>
+    <#else>
+    <a href="${pageLinks[p - 1]}">${p}</a>
+    </#if>
+    </#list>
+</nav><br>
+</#if>
+<#list matches as match>
+    ${match}
+    <br>
+</#list>
+</div>
+</body>
+</html>
@@ -0,0 +1,29 @@
+<html lang="en">
+<#assign pageTitle = tournamentDescription.tournamentTitle>
+<#include "head.ftl">
+<body>
+<div class="container">
+<h2>${tournamentDescription.tournamentTitle}</h2><br>
+<#if tournamentDescription.linkvalue??>
+    <a href="${tournamentDescription.linkvalue}">${tournamentDescription.linkname}</a><br>
+</#if>
+<#list shards as shard>
+<table class="table table-bordered table-hover">
+    <caption style="text-align: left;caption-side: top">
+        <h3><a href="${shard.path}">${shard.levelDescription}<#if shard.pageCount gt 1> (${shard.page}/${shard.pageCount})</#if></a></h3>
+    </caption>
+    <tbody>
+    <#list shard.summaries as summary>
+        <tr>
+            <td class="fixed-square-player<#if summary.winner == 1> font-weight-bold</#if>">${summary.player1}</td>
+            <td class="text-center fixed-square-score">${summary.score1}</td>
+            <td class="text-center fixed-square-score">${summary.score2}</td>
+            <td class="fixed-square-player<#if summary.winner == 2> font-weight-bold</#if>">${summary.player2}</td>
+        </tr>
+    </#list>
+    </tbody>
+</table>
+</#list>
+</div>
+</body>
+</html>
@@ -0,0 +1,61 @@
+package ru.appliedtech.chess.playoffsite;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class InputLoadingTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void missingInputFailsWithItsOwnException() throws Exception {
+        for (boolean snapshot : new boolean[]{false, true}) {
+            TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+            Files.delete(fixture.getPlayersFile().toPath());
+            try {
+                fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions().setSnapshot(snapshot)), folder.newFolder());
+                fail("Missing players file was not reported");
+            } catch (NoSuchFileException e) {
+                assertEquals(fixture.getPlayersFile().getPath(), e.getFile());
+            }
+        }
+    }
+
+    @Test
+    public void malformedInputFailsWithTheParseError() throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        Files.write(fixture.getLevelsFile().toPath(), "[{".getBytes(StandardCharsets.UTF_8));
+        try {
+            fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions()), folder.newFolder());
+            fail("Malformed level players file was not reported");
+        } catch (JsonProcessingException e) {
+            // Expected: neither wrapped nor replaced by a failure of another input.
+        }
+    }
+
+    @Test
+    public void inputsFromTheSnapshotGenerateTheSameSite() throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        File expectedDir = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions()), expectedDir);
+        Map<String, String> expected = TestFixture.readPages(expectedDir);
+
+        File outputDir = folder.newFolder();
+        PlayoffSiteOptions options = new PlayoffSiteOptions().setSnapshot(true);
+        fixture.generate(new PlayoffSiteGenerator(options), outputDir);
+        assertEquals(expected, TestFixture.readPages(outputDir));
+        // The second run parses nothing and takes every input from the snapshot.
+        fixture.generate(new PlayoffSiteGenerator(options), outputDir);
+        assertEquals(expected, TestFixture.readPages(outputDir));
+    }
+}
@@ -0,0 +1,46 @@
+package ru.appliedtech.chess.playoffsite;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+public class MultiLocaleGenerationTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void eachLocaleGetsTheSiteOfASingleLocaleRun() throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        File multiDir = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions()), "en_US,ru_RU", multiDir);
+
+        Map<String, String> english = generate(fixture, "en_US");
+        Map<String, String> russian = generate(fixture, "ru_RU");
+        assertFalse(english.isEmpty());
+        assertNotEquals(english, russian);
+        assertEquals(english, TestFixture.readPages(new File(multiDir, "en_US")));
+        assertEquals(russian, TestFixture.readPages(new File(multiDir, "ru_RU")));
+    }
+
+    @Test
+    public void repeatedLocaleIsGeneratedOnceInTheRoot() throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        File outputDir = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions()), "en_US, en_US", outputDir);
+
+        assertEquals(generate(fixture, "en_US"), TestFixture.readPages(outputDir));
+    }
+
+    private Map<String, String> generate(TestFixture fixture, String locale) throws Exception {
+        File outputDir = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions()), locale, outputDir);
+        return TestFixture.readPages(outputDir);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.appliedtech.chess.playoffsite;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelGenerationTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void workerPoolRendersTheSamePageAsOneThread() throws Exception {
+        assertSamePage("freemarker");
+    }
+
+    @Test
+    public void workerPoolRendersTheSamePageWithTheDirectEngine() throws Exception {
+        assertSamePage("direct");
+    }
+
+    private void assertSamePage(String engine) throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        File sequential = folder.newFolder();
+        File parallel = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions().setEngine(engine).setThreads(1)), sequential);
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions().setEngine(engine).setThreads(4)), parallel);
+        assertEquals(TestFixture.read(new File(sequential, "index.html")), TestFixture.read(new File(parallel, "index.html")));
+    }
+}
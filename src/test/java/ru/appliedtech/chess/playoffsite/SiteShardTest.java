@@ -0,0 +1,69 @@
+package ru.appliedtech.chess.playoffsite;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.playoff.PlayoffLevel;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator.PlayoffLevelPlayersJsonRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SiteShardTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void eachLevelGetsOnePageWithoutASize() throws IOException {
+        List<SiteShard> shards = SiteShard.split(levelPlayers(), 0);
+
+        assertEquals(4, shards.size());
+        assertEquals(PlayoffLevel.QUARTERFINAL, shards.get(0).getLevel());
+        assertEquals(Arrays.asList(0, 1, 2, 3), shards.get(0).getIndexes());
+        assertEquals("pages/quarterfinal.html", shards.get(0).getPath());
+        assertEquals(1, shards.get(0).getPageCount());
+        assertEquals("pages/final.html", shards.get(2).getPath());
+    }
+
+    @Test
+    public void largeLevelsAreSplitIntoNumberedPages() throws IOException {
+        List<SiteShard> shards = SiteShard.split(levelPlayers(), 3);
+
+        assertEquals(5, shards.size());
+        assertEquals(Arrays.asList(0, 1, 2), shards.get(0).getIndexes());
+        assertEquals(Arrays.asList(3), shards.get(1).getIndexes());
+        assertEquals(2, shards.get(1).getPage());
+        assertEquals(2, shards.get(1).getPageCount());
+        assertEquals("pages/quarterfinal.html", shards.get(0).getPath());
+        assertEquals("pages/quarterfinal-2.html", shards.get(1).getPath());
+        assertEquals(Arrays.asList(4, 5), shards.get(2).getIndexes());
+    }
+
+    @Test
+    public void pagesNoLongerProducedAreRemoved() throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        File outputDir = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions().setSharded(true).setShardSize(1)), outputDir);
+        Map<String, String> pages = TestFixture.readPages(outputDir);
+        assertTrue(pages.containsKey("pages/quarterfinal-4.html"));
+        assertTrue(pages.get("index.html").contains("quarterfinal-4.html"));
+
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions().setSharded(true)), outputDir);
+        assertEquals(Arrays.asList("index.html", "pages/final.html", "pages/for_third.html",
+                "pages/quarterfinal.html", "pages/semifinal.html"),
+                new ArrayList<>(TestFixture.readPages(outputDir).keySet()));
+    }
+
+    private static List<PlayoffLevelPlayersJsonRecord> levelPlayers() throws IOException {
+        return new ObjectMapper().readValue(SiteShardTest.class.getResourceAsStream("/fixture/levels.json"),
+                new TypeReference<ArrayList<PlayoffLevelPlayersJsonRecord>>() {});
+    }
+}
@@ -0,0 +1,82 @@
+package ru.appliedtech.chess.playoffsite;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// The anonymised playoff under src/test/resources/fixture, the same one the benchmarks ship,
+// copied into a directory of the test's own so that it may change the inputs.
+public final class TestFixture {
+    public static final String LOCALE = "en_US";
+    private static final String RESOURCE_DIR = "/fixture/";
+
+    private final File tournamentFile;
+    private final File playersFile;
+    private final File gamesFile;
+    private final File levelsFile;
+
+    private TestFixture(File dir) {
+        this.tournamentFile = new File(dir, "tournament.json");
+        this.playersFile = new File(dir, "players.json");
+        this.gamesFile = new File(dir, "games.json");
+        this.levelsFile = new File(dir, "levels.json");
+    }
+
+    public static TestFixture copyTo(File dir) throws IOException {
+        Files.createDirectories(dir.toPath());
+        TestFixture fixture = new TestFixture(dir);
+        for (File file : new File[]{fixture.tournamentFile, fixture.playersFile, fixture.gamesFile, fixture.levelsFile}) {
+            try (InputStream is = TestFixture.class.getResourceAsStream(RESOURCE_DIR + file.getName())) {
+                Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return fixture;
+    }
+
+    public void generate(PlayoffSiteGenerator generator, File outputDir) throws Exception {
+        generate(generator, LOCALE, outputDir);
+    }
+
+    public void generate(PlayoffSiteGenerator generator, String locale, File outputDir) throws Exception {
+        generator.run(locale, tournamentFile.getPath(), playersFile.getPath(), gamesFile.getPath(),
+                levelsFile.getPath(), outputDir.getPath());
+    }
+
+    public File getTournamentFile() {
+        return tournamentFile;
+    }
+
+    public File getPlayersFile() {
+        return playersFile;
+    }
+
+    public File getGamesFile() {
+        return gamesFile;
+    }
+
+    public File getLevelsFile() {
+        return levelsFile;
+    }
+
+    public static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    // The HTML pages of a generated site keyed by their path relative to it.
+    public static Map<String, String> readPages(File outputDir) throws IOException {
+        Map<String, String> pages = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(outputDir.toPath())) {
+            for (Path path : (Iterable<Path>) paths.filter(p -> p.toString().endsWith(".html"))::iterator) {
+                pages.put(outputDir.toPath().relativize(path).toString().replace(File.separatorChar, '/'), read(path.toFile()));
+            }
+        }
+        return pages;
+    }
+}
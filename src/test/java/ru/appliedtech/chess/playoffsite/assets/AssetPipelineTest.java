@@ -0,0 +1,90 @@
+package ru.appliedtech.chess.playoffsite.assets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.playoffsite.Digests;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteOptions;
+import ru.appliedtech.chess.playoffsite.TestFixture;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AssetPipelineTest {
+    private static final String STYLESHEET =
+            "/*! License notice */\n" +
+            ".alpha { color: red; }\n" +
+            "/* critical-end */\n" +
+            "/* plain comment */\n" +
+            ".beta, .gamma > .alpha { margin : 0 ; font-family: \"A B\", serif; }\n" +
+            ".unused { color: blue; }\n" +
+            "@media (max-width: 600px) { .beta { display: none; } .unused { color: green; } }\n";
+    private static final String HEAD = "<head>" + AssetPipeline.MARKER + "</head>";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void pagesGetCriticalRulesAndALinkToTheBundle() {
+        Map<String, byte[]> pages = new LinkedHashMap<>();
+        pages.put("index.html", bytes(HEAD + "<div class=\"alpha js-hook\"></div>"));
+        pages.put("pages/final.html", bytes(HEAD + "<p class=\" beta \"></p>"));
+
+        Map<String, String> result = strings(new AssetPipeline(STYLESHEET).process(pages));
+
+        List<String> paths = new ArrayList<>(result.keySet());
+        String bundle = "/*! License notice */\n"
+                + ".b{margin:0;font-family:\"A B\", serif}@media (max-width:600px){.b{display:none}}";
+        String bundlePath = "assets/playoff." + Digests.sha256Hex(bytes(bundle)).substring(0, 12) + ".css";
+        assertEquals(bundlePath, paths.get(0));
+        assertEquals(bundle, result.get(bundlePath));
+        assertEquals("<head><style>.a{color:red}</style><link rel=\"stylesheet\" href=\"" + bundlePath + "\"></head>"
+                + "<div class=\"a js-hook\"></div>", result.get("index.html"));
+        assertEquals("<head><style></style><link rel=\"stylesheet\" href=\"../" + bundlePath + "\"></head>"
+                + "<p class=\"b\"></p>", result.get("pages/final.html"));
+    }
+
+    @Test
+    public void shortNamesSkipClassesThePagesKeep() {
+        Map<String, byte[]> pages = new LinkedHashMap<>();
+        pages.put("index.html", bytes(HEAD + "<div class=\"alpha a\"></div>"));
+
+        String page = strings(new AssetPipeline(STYLESHEET).process(pages)).get("index.html");
+
+        assertTrue(page, page.contains("<style>.b{color:red}</style>"));
+        assertTrue(page, page.contains("class=\"b a\""));
+    }
+
+    @Test
+    public void generatedPagesLinkTheBundleTheyWerePublishedWith() throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        File outputDir = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions().setAssets(true)), outputDir);
+
+        String[] bundles = new File(outputDir, AssetPipeline.ASSETS_DIR_NAME).list((dir, name) -> name.endsWith(".css"));
+        assertNotNull(bundles);
+        assertEquals(1, bundles.length);
+        String index = TestFixture.read(new File(outputDir, "index.html"));
+        assertFalse(index.contains(AssetPipeline.MARKER));
+        assertTrue(index.contains("href=\"" + AssetPipeline.ASSETS_DIR_NAME + "/" + bundles[0] + "\""));
+    }
+
+    private static byte[] bytes(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> strings(Map<String, byte[]> pages) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> entry : pages.entrySet()) {
+            result.put(entry.getKey(), new String(entry.getValue(), StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+}
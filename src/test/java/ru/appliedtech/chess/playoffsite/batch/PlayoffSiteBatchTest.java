@@ -0,0 +1,80 @@
+package ru.appliedtech.chess.playoffsite.batch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteOptions;
+import ru.appliedtech.chess.playoffsite.TestFixture;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PlayoffSiteBatchTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void batchGeneratesWhatSingleRunsGenerate() throws Exception {
+        File baseDir = folder.newFolder();
+        TestFixture.copyTo(new File(baseDir, "a"));
+        TestFixture.copyTo(new File(baseDir, "b"));
+        File manifest = writeManifest(baseDir, "[" + entry("a") + ", " + entry("b") + "]");
+
+        List<PlayoffSiteBatch.Result> results = new PlayoffSiteBatch(new PlayoffSiteOptions().setThreads(2))
+                .run(PlayoffSiteBatch.readManifest(manifest));
+
+        assertEquals(2, results.size());
+        File expectedDir = folder.newFolder();
+        TestFixture.copyTo(folder.newFolder()).generate(new PlayoffSiteGenerator(new PlayoffSiteOptions()), expectedDir);
+        String expected = TestFixture.read(new File(expectedDir, "index.html"));
+        for (PlayoffSiteBatch.Result result : results) {
+            assertNull(result.getError());
+            assertEquals(expected, TestFixture.read(new File(result.getTournament().getOutputDir(), "index.html")));
+        }
+        assertEquals("a", results.get(0).getTournament().getId());
+        assertEquals(new File(baseDir, "a/out").getPath(), results.get(0).getTournament().getOutputDir());
+    }
+
+    @Test
+    public void failedTournamentDoesNotStopTheOthers() throws Exception {
+        File baseDir = folder.newFolder();
+        TestFixture.copyTo(new File(baseDir, "a"));
+        TestFixture.copyTo(new File(baseDir, "b"));
+        Files.delete(new File(baseDir, "b/games.json").toPath());
+        File manifest = writeManifest(baseDir, "[" + entry("b") + ", " + entry("a") + "]");
+
+        List<PlayoffSiteBatch.Result> results = new PlayoffSiteBatch(new PlayoffSiteOptions().setThreads(1))
+                .run(PlayoffSiteBatch.readManifest(manifest));
+
+        assertNotNull(results.get(0).getError());
+        assertNull(results.get(1).getError());
+        assertTrue(new File(baseDir, "a/out/index.html").isFile());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void manifestEntriesNeedEveryInput() throws Exception {
+        File baseDir = folder.newFolder();
+        PlayoffSiteBatch.readManifest(writeManifest(baseDir, "[{\"id\": \"a\", \"outputDir\": \"out\"}]"));
+    }
+
+    private static String entry(String dir) {
+        return "{\"id\": \"" + dir + "\", \"locale\": \"" + TestFixture.LOCALE + "\","
+                + " \"tournamentDescription\": \"" + dir + "/tournament.json\","
+                + " \"players\": \"" + dir + "/players.json\","
+                + " \"games\": \"" + dir + "/games.json\","
+                + " \"levelPlayers\": \"" + dir + "/levels.json\","
+                + " \"outputDir\": \"" + dir + "/out\"}";
+    }
+
+    private static File writeManifest(File baseDir, String json) throws IOException {
+        File manifest = new File(baseDir, "manifest.json");
+        Files.write(manifest.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        return manifest;
+    }
+}
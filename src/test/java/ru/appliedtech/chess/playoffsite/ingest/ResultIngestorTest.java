@@ -0,0 +1,110 @@
+package ru.appliedtech.chess.playoffsite.ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteOptions;
+import ru.appliedtech.chess.playoffsite.TestFixture;
+import ru.appliedtech.chess.playoffsite.metrics.StatusLog;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ResultIngestorTest {
+    private static final String GAME =
+            "{\"gameId\": \"g28\", \"whiteId\": \"p4\", \"blackId\": \"p1\", \"timeControlType\": \"RAPID\", \"result\": \"1-0\"}";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger regenerations = new AtomicInteger();
+    private final StatusLog status = new StatusLog(new PrintStream(new ByteArrayOutputStream()));
+    private TestFixture fixture;
+    private ResultIngestor ingestor;
+
+    @Before
+    public void setUp() throws IOException {
+        fixture = TestFixture.copyTo(folder.newFolder());
+        PlayoffSiteGenerator generator = new PlayoffSiteGenerator(new PlayoffSiteOptions());
+        // The batcher is not started, so batches run only through compact() and close().
+        ingestor = new ResultIngestor(fixture.getGamesFile(), 60_000,
+                () -> generator.gameObjectMapper(fixture.getTournamentFile().getPath()),
+                regenerations::incrementAndGet, status);
+    }
+
+    @Test
+    public void compactionAppendsToTheGamesFile() throws IOException {
+        JsonNode before = mapper.readTree(fixture.getGamesFile());
+        ingestor.submit(Collections.singletonList(mapper.readTree(GAME))).join();
+
+        assertEquals(1, ingestor.compact());
+        assertEquals(0, ingestor.compact());
+        JsonNode after = mapper.readTree(fixture.getGamesFile());
+        assertEquals(before.size() + 1, after.size());
+        assertEquals(before.get(0), after.get(0));
+        assertEquals(mapper.readTree(GAME), after.get(after.size() - 1));
+        ingestor.close();
+        assertEquals(0, regenerations.get());
+    }
+
+    @Test
+    public void closeCompactsAndRegeneratesPendingRecords() throws IOException {
+        ingestor.submit(ingestor.readRecords(new ByteArrayInputStream(
+                ("[" + GAME + "] " + GAME.replace("g28", "g29")).getBytes(StandardCharsets.UTF_8)))).join();
+        ingestor.close();
+
+        JsonNode games = mapper.readTree(fixture.getGamesFile());
+        assertEquals("g29", games.get(games.size() - 1).get("gameId").asText());
+        assertEquals("g28", games.get(games.size() - 2).get("gameId").asText());
+        assertEquals(1, regenerations.get());
+    }
+
+    @Test
+    public void recordsFollowingAnArrayAreRead() throws IOException {
+        assertEquals(3, ingestor.readRecords(new ByteArrayInputStream(
+                "[{\"a\": 1}, {\"a\": 2}]\n{\"a\": 3}".getBytes(StandardCharsets.UTF_8))).size());
+        // Only the outer array is unwrapped; a nested one is a record, and an invalid one.
+        assertTrue(ingestor.readRecords(new ByteArrayInputStream(
+                "[[{\"a\": 1}]]".getBytes(StandardCharsets.UTF_8))).get(0).isArray());
+        ingestor.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidRecordRejectsTheWholeSubmission() throws IOException {
+        try {
+            ingestor.submit(Arrays.asList(mapper.readTree(GAME), mapper.readTree("[1]")));
+        } finally {
+            ingestor.close();
+            assertEquals(0, regenerations.get());
+        }
+    }
+
+    @Test
+    public void lineProtocolAnswersEveryLine() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, true, "UTF-8")) {
+            ingestor.ingest(new BufferedReader(new StringReader(GAME + "\n\nnot json\n")), out);
+        }
+        ingestor.close();
+
+        String[] responses = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\\R");
+        assertEquals(2, responses.length);
+        assertTrue(Arrays.asList(responses).contains("OK 1"));
+        assertTrue(Arrays.toString(responses), Arrays.stream(responses).anyMatch(r -> r.startsWith("ERROR 3: ")));
+    }
+}
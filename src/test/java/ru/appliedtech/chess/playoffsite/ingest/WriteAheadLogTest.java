@@ -0,0 +1,128 @@
+package ru.appliedtech.chess.playoffsite.ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.playoffsite.metrics.StatusLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WriteAheadLogTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger commits = new AtomicInteger();
+    private final StatusLog status = new StatusLog(new PrintStream(new ByteArrayOutputStream()));
+    private File file;
+    private File gamesFile;
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.getRoot(), "games.json.wal");
+        gamesFile = write(new File(folder.getRoot(), "games.json"), "[]");
+    }
+
+    @Test
+    public void committedRecordsSurviveReopening() throws IOException {
+        try (WriteAheadLog log = open()) {
+            log.append(Arrays.asList(game("g1"), game("g2"))).join();
+            log.append(game("g3")).join();
+            assertEquals(Arrays.asList(game("g1"), game("g2"), game("g3")), log.getUncompacted());
+        }
+        assertTrue(commits.get() > 0);
+        try (WriteAheadLog log = open()) {
+            assertEquals(Arrays.asList(game("g1"), game("g2"), game("g3")), log.getUncompacted());
+        }
+    }
+
+    @Test
+    public void tornLastLineIsDroppedOnReplay() throws IOException {
+        write(file, "{\"game\":{\"gameId\":\"g1\"}}\n{\"game\":{\"gameId\":\"g2\"}}\n{\"game\":{\"gam");
+        try (WriteAheadLog log = open()) {
+            assertEquals(Arrays.asList(game("g1"), game("g2")), log.getUncompacted());
+            log.append(game("g3")).join();
+        }
+        // The torn line is gone from the file, so a record appended after it stays readable.
+        try (WriteAheadLog log = open()) {
+            assertEquals(Arrays.asList(game("g1"), game("g2"), game("g3")), log.getUncompacted());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptLineBeforeTheLastFailsReplay() throws IOException {
+        write(file, "{\"game\":{\"gameId\":\"g1\"}}\n{\"game\":{\n{\"game\":{\"gameId\":\"g2\"}}\n");
+        open().close();
+    }
+
+    @Test
+    public void truncatedRecordsAreGoneAfterReopening() throws IOException {
+        try (WriteAheadLog log = open()) {
+            log.append(Arrays.asList(game("g1"), game("g2"), game("g3"))).join();
+            log.truncate(2);
+            assertEquals(Arrays.asList(game("g3")), log.getUncompacted());
+        }
+        try (WriteAheadLog log = open()) {
+            assertEquals(Arrays.asList(game("g3")), log.getUncompacted());
+        }
+    }
+
+    @Test
+    public void checkpointOfPublishedGamesDropsTheirRecords() throws IOException {
+        byte[] published = "[{\"gameId\":\"g1\"},{\"gameId\":\"g2\"}]".getBytes(StandardCharsets.UTF_8);
+        try (WriteAheadLog log = open()) {
+            log.append(Arrays.asList(game("g1"), game("g2"), game("g3"))).join();
+            log.checkpoint(2, published);
+        }
+        // The process died after publishing the games file but before truncating the log.
+        Files.write(gamesFile.toPath(), published);
+        try (WriteAheadLog log = open()) {
+            assertEquals(Arrays.asList(game("g3")), log.getUncompacted());
+        }
+    }
+
+    @Test
+    public void checkpointOfUnpublishedGamesKeepsTheirRecords() throws IOException {
+        byte[] published = "[{\"gameId\":\"g1\"},{\"gameId\":\"g2\"}]".getBytes(StandardCharsets.UTF_8);
+        try (WriteAheadLog log = open()) {
+            log.append(Arrays.asList(game("g1"), game("g2"), game("g3"))).join();
+            log.checkpoint(2, published);
+        }
+        // The process died before the games file was replaced.
+        try (WriteAheadLog log = open()) {
+            assertEquals(Arrays.asList(game("g1"), game("g2"), game("g3")), log.getUncompacted());
+        }
+    }
+
+    @Test
+    public void appendAfterCloseFails() throws IOException {
+        WriteAheadLog log = open();
+        log.close();
+        assertTrue(log.append(game("g1")).isCompletedExceptionally());
+    }
+
+    private WriteAheadLog open() throws IOException {
+        return new WriteAheadLog(file, gamesFile, commits::incrementAndGet, status);
+    }
+
+    private JsonNode game(String id) {
+        return mapper.createObjectNode().put("gameId", id);
+    }
+
+    private static File write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
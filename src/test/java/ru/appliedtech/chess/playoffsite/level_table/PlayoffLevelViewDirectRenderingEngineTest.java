@@ -0,0 +1,45 @@
+package ru.appliedtech.chess.playoffsite.level_table;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteOptions;
+import ru.appliedtech.chess.playoffsite.TestFixture;
+
+import java.io.File;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class PlayoffLevelViewDirectRenderingEngineTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rendersWhatTheTemplateRenders() throws Exception {
+        assertSamePages(new PlayoffSiteOptions(), new PlayoffSiteOptions());
+    }
+
+    @Test
+    public void rendersRatingCellsWhatTheTemplateRenders() throws Exception {
+        assertSamePages(new PlayoffSiteOptions().setRatings(true), new PlayoffSiteOptions().setRatings(true));
+    }
+
+    @Test
+    public void rendersShardedPagesWhatTheTemplateRenders() throws Exception {
+        assertSamePages(new PlayoffSiteOptions().setSharded(true), new PlayoffSiteOptions().setSharded(true));
+    }
+
+    private void assertSamePages(PlayoffSiteOptions freemarker, PlayoffSiteOptions direct) throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        File freemarkerDir = folder.newFolder();
+        File directDir = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(freemarker.setEngine("freemarker")), freemarkerDir);
+        fixture.generate(new PlayoffSiteGenerator(direct.setEngine("direct")), directDir);
+        Map<String, String> expected = TestFixture.readPages(freemarkerDir);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, TestFixture.readPages(directDir));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.appliedtech.chess.playoffsite.level_table;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteOptions;
+import ru.appliedtech.chess.playoffsite.TestFixture;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+import static ru.appliedtech.chess.playoffsite.level_table.PlayoffLevelViewJsonRenderingEngine.decodeCharacterReferences;
+
+public class PlayoffLevelViewJsonRenderingEngineTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void characterReferencesAreDecoded() {
+        assertEquals("1½", decodeCharacterReferences("1&#189;"));
+        assertEquals("¼ and ¾", decodeCharacterReferences("&#188; and &#xBE;"));
+        assertEquals("plain", decodeCharacterReferences("plain"));
+        assertEquals("&#oops; &#", decodeCharacterReferences("&#oops; &#"));
+        assertNull(decodeCharacterReferences(null));
+    }
+
+    @Test
+    public void matchesEmbedEveryLevelDocument() throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        File jsonDir = folder.newFolder();
+        File htmlDir = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions().setJson(true)), jsonDir);
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions()), htmlDir);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode matches = mapper.readTree(new File(jsonDir, "matches.json"));
+        assertEquals(TestFixture.LOCALE, matches.get("locale").asText());
+        assertEquals("Sample Playoff", matches.get("tournament").get("tournamentTitle").asText());
+        JsonNode levels = matches.get("levels");
+        assertTrue(levels.size() > 0);
+        for (int i = 0; i < levels.size(); i++) {
+            JsonNode level = levels.get(i);
+            assertEquals(mapper.readTree(new File(jsonDir, "levels/" + i + ".json")), level);
+            assertEquals(level.get("header").size(), level.get("rows").get(0).size());
+            for (JsonNode row : level.get("rows")) {
+                for (JsonNode cell : row) {
+                    assertFalse(cell.get("value").asText().contains("&#"));
+                }
+            }
+        }
+        assertEquals(TestFixture.readPages(htmlDir), TestFixture.readPages(jsonDir));
+    }
+}
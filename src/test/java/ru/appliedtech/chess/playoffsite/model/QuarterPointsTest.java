@@ -0,0 +1,68 @@
+package ru.appliedtech.chess.playoffsite.model;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class QuarterPointsTest {
+    @Test
+    public void scoresAreFormattedWithVulgarFractions() {
+        assertEquals("0", QuarterPoints.toString(0));
+        assertEquals("&#188;", QuarterPoints.toString(1));
+        assertEquals("&#189;", QuarterPoints.toString(2));
+        assertEquals("&#190;", QuarterPoints.toString(3));
+        assertEquals("1", QuarterPoints.toString(4));
+        assertEquals("1&#189;", QuarterPoints.toString(6));
+        assertEquals("12&#190;", QuarterPoints.toString(51));
+        assertEquals("100", QuarterPoints.toString(QuarterPoints.MAX));
+    }
+
+    @Test
+    public void everyQuarterFormatsLikeItsDecimalValue() {
+        for (int i = 0; i <= QuarterPoints.MAX; i++) {
+            BigDecimal value = QuarterPoints.toBigDecimal(i);
+            assertEquals(i, QuarterPoints.of(value));
+            assertEquals(QuarterPoints.format(value), QuarterPoints.toString(i));
+        }
+    }
+
+    @Test
+    public void decimalsOfAnyScaleAreQuarters() {
+        assertEquals(2, QuarterPoints.of(new BigDecimal("0.5")));
+        assertEquals(2, QuarterPoints.of(new BigDecimal("0.50")));
+        assertEquals(4, QuarterPoints.of(BigDecimal.ONE));
+        assertEquals(4, QuarterPoints.of(new BigDecimal("1E+0")));
+    }
+
+    @Test
+    public void otherValuesHaveNoQuarters() {
+        assertEquals(QuarterPoints.NONE, QuarterPoints.of(null));
+        assertEquals(QuarterPoints.NONE, QuarterPoints.of(new BigDecimal("-0.5")));
+        assertEquals(QuarterPoints.NONE, QuarterPoints.of(new BigDecimal("0.3")));
+        assertEquals(QuarterPoints.NONE, QuarterPoints.of(new BigDecimal("0.125")));
+        assertEquals(QuarterPoints.NONE, QuarterPoints.of(new BigDecimal("100.25")));
+    }
+
+    @Test
+    public void roundsNotPlayedYetHaveNoQuarters() {
+        int[] quarters = QuarterPoints.of(Arrays.asList(BigDecimal.ONE, new BigDecimal("0.5")), 3);
+        assertArrayEquals(new int[]{4, 2, QuarterPoints.NONE}, quarters);
+    }
+
+    @Test
+    public void scoreCellsFormatLikeQuarterPoints() {
+        assertEquals("1&#189;", new ScoreCellView(6, "style").getValue());
+        assertEquals("1&#189;", new ScoreCellView(new BigDecimal("1.5")).getValue());
+        assertEquals(6, new ScoreCellView(new BigDecimal("1.50"), "style").getQuarters());
+        assertEquals("0.3", new ScoreCellView(new BigDecimal("0.3")).getValue());
+        assertEquals(QuarterPoints.NONE, new ScoreCellView(new BigDecimal("0.3")).getQuarters());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scoreCellRejectsQuartersOutOfRange() {
+        new ScoreCellView(QuarterPoints.MAX + 1, "style");
+    }
+}
@@ -0,0 +1,125 @@
+package ru.appliedtech.chess.playoffsite.output;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class OutputPublisherTest {
+    private static final byte[] PAGE = "<html>page</html>".getBytes(StandardCharsets.UTF_8);
+    private static final long OLD_MODIFIED = 1_000_000_000_000L;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void publishesPageWithCompressedSibling() throws IOException {
+        File target = new File(folder.getRoot(), "pages/index.html");
+        try (OutputPublisher publisher = new OutputPublisher(9, 2)) {
+            publisher.publish(target, PAGE);
+            assertEquals(1, publisher.await());
+        }
+        assertArrayEquals(PAGE, Files.readAllBytes(target.toPath()));
+        assertArrayEquals(PAGE, gunzip(new File(target.getPath() + ".gz")));
+        String[] names = target.getParentFile().list();
+        Arrays.sort(names);
+        assertArrayEquals(new String[]{"index.html", "index.html.gz"}, names);
+    }
+
+    @Test
+    public void unchangedPageKeepsItsModificationTime() throws IOException {
+        File target = folder.newFile("index.html");
+        try (OutputPublisher publisher = new OutputPublisher(6, 1)) {
+            publisher.publish(target, PAGE);
+            publisher.await();
+            assertTrue(target.setLastModified(OLD_MODIFIED));
+            publisher.publish(target, PAGE);
+            assertEquals(0, publisher.await());
+            assertEquals(OLD_MODIFIED, target.lastModified());
+
+            publisher.publish(target, "<html>changed</html>".getBytes(StandardCharsets.UTF_8));
+            assertEquals(1, publisher.await());
+            assertNotEquals(OLD_MODIFIED, target.lastModified());
+        }
+    }
+
+    @Test
+    public void changedLevelRebuildsTheSibling() throws IOException {
+        File target = folder.newFile("index.html");
+        byte[] page = new byte[64 * 1024];
+        Arrays.fill(page, (byte) 'a');
+        try (OutputPublisher publisher = new OutputPublisher(1, 1)) {
+            publisher.publish(target, page);
+            publisher.await();
+        }
+        byte[] fastSibling = Files.readAllBytes(new File(target.getPath() + ".gz").toPath());
+        try (OutputPublisher publisher = new OutputPublisher(9, 1)) {
+            publisher.publish(target, page);
+            assertEquals(1, publisher.await());
+        }
+        File sibling = new File(target.getPath() + ".gz");
+        assertFalse(Arrays.equals(fastSibling, Files.readAllBytes(sibling.toPath())));
+        assertArrayEquals(page, gunzip(sibling));
+    }
+
+    @Test
+    public void uncompressedRunRemovesTheSibling() throws IOException {
+        File target = folder.newFile("index.html");
+        try (OutputPublisher publisher = new OutputPublisher(6, 1)) {
+            publisher.publish(target, PAGE);
+            publisher.await();
+        }
+        try (OutputPublisher publisher = new OutputPublisher(OutputPublisher.NO_COMPRESSION, 1)) {
+            publisher.publish(target, PAGE);
+            assertEquals(1, publisher.await());
+        }
+        assertFalse(new File(target.getPath() + ".gz").exists());
+        assertArrayEquals(PAGE, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void removesFilesThatWereNotPublished() throws IOException {
+        File dir = folder.newFolder();
+        File kept = new File(dir, "shard-1.html");
+        File stale = new File(dir, "shard-2.html");
+        File temp = new File(dir, ".shard-3.html.tmp");
+        for (File file : new File[]{kept, new File(kept.getPath() + ".gz"), stale, new File(stale.getPath() + ".gz"), temp}) {
+            Files.write(file.toPath(), PAGE);
+        }
+        try (OutputPublisher publisher = new OutputPublisher(OutputPublisher.NO_COMPRESSION, 1)) {
+            assertEquals(2, publisher.removeStale(dir, Arrays.asList(kept)));
+        }
+        assertTrue(kept.isFile());
+        assertTrue(new File(kept.getPath() + ".gz").isFile());
+        assertFalse(stale.exists());
+        assertTrue(temp.isFile());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidLevel() {
+        new OutputPublisher(10, 1);
+    }
+
+    private static byte[] gunzip(File file) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream is = new GZIPInputStream(new FileInputStream(file))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                result.write(buffer, 0, read);
+            }
+        }
+        return result.toByteArray();
+    }
+}
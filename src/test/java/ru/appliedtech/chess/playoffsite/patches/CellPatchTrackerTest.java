@@ -0,0 +1,100 @@
+package ru.appliedtech.chess.playoffsite.patches;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteOptions;
+import ru.appliedtech.chess.playoffsite.TestFixture;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class CellPatchTrackerTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private TestFixture fixture;
+    private File outputDir;
+    private File patchesDir;
+
+    @Before
+    public void setUp() throws Exception {
+        fixture = TestFixture.copyTo(folder.newFolder());
+        outputDir = folder.newFolder();
+        patchesDir = new File(outputDir, CellPatchTracker.PATCHES_DIR_NAME);
+        generate();
+    }
+
+    @Test
+    public void firstRunIsTheBaseOfLaterPatches() throws Exception {
+        assertEquals(0, latestSequence());
+        assertFalse(new File(patchesDir, "1.json").exists());
+        generate();
+        assertEquals(0, latestSequence());
+        assertFalse(new File(patchesDir, "1.json").exists());
+    }
+
+    @Test
+    public void patchHoldsTheChangedCellsOnly() throws Exception {
+        JsonNode before = state().get("levels");
+        changeFirstResult();
+        generate();
+
+        assertEquals(1, latestSequence());
+        JsonNode patch = mapper.readTree(new File(patchesDir, "1.json"));
+        assertEquals(1, patch.get("sequence").asLong());
+        assertFalse(patch.get("reload").asBoolean());
+        JsonNode changes = patch.get("changes");
+        assertTrue(changes.size() > 0);
+        JsonNode after = state().get("levels");
+        assertNotEquals(before, after);
+        // Applying the patch to the previous cells gives the current ones.
+        JsonNode patched = before.deepCopy();
+        for (JsonNode change : changes) {
+            ArrayNode cell = JsonNodeFactory.instance.arrayNode().add(change.get(3)).add(change.get(4)).add(change.get(5));
+            ((ArrayNode) patched.get(change.get(0).asInt()).get(change.get(1).asInt())).set(change.get(2).asInt(), cell);
+        }
+        assertEquals(after, patched);
+    }
+
+    @Test
+    public void lostStateAsksForAReload() throws Exception {
+        Files.delete(new File(patchesDir, "state.json").toPath());
+        changeFirstResult();
+        generate();
+
+        assertEquals(1, latestSequence());
+        JsonNode patch = mapper.readTree(new File(patchesDir, "1.json"));
+        assertTrue(patch.get("reload").asBoolean());
+        assertTrue(patch.get("changes").isNull());
+    }
+
+    private void generate() throws Exception {
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions().setPatches(true)), outputDir);
+    }
+
+    private void changeFirstResult() throws IOException {
+        File games = fixture.getGamesFile();
+        String content = TestFixture.read(games);
+        Files.write(games.toPath(), content.replaceFirst("\"1-0\"", "\"0-1\"").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long latestSequence() throws IOException {
+        return mapper.readTree(new File(patchesDir, "latest.json")).get("sequence").asLong();
+    }
+
+    private JsonNode state() throws IOException {
+        return mapper.readTree(new File(patchesDir, "state.json"));
+    }
+}
@@ -0,0 +1,71 @@
+package ru.appliedtech.chess.playoffsite.players;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import ru.appliedtech.chess.ChessBaseObjectMapper;
+import ru.appliedtech.chess.Player;
+import ru.appliedtech.chess.TournamentDescription;
+import ru.appliedtech.chess.TournamentSetupObjectNodeReader;
+import ru.appliedtech.chess.playoff.io.PlayoffSetupObjectNodeReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.Assert.*;
+
+public class PlayerDirectoryTest {
+    private PlayerDirectory directory;
+
+    @Before
+    public void setUp() throws IOException {
+        Map<String, TournamentSetupObjectNodeReader> tournamentSetupReaders = new HashMap<>();
+        tournamentSetupReaders.put("playoff", new PlayoffSetupObjectNodeReader());
+        ObjectMapper tournamentDescriptionMapper = new ChessBaseObjectMapper(tournamentSetupReaders);
+        TournamentDescription tournamentDescription = tournamentDescriptionMapper.readValue(
+                "{\"tournamentId\": \"t\", \"tournamentTitle\": \"T\","
+                        + " \"players\": [\"p3\", \"p1\", \"unknown\", \"p3\"],"
+                        + " \"joinedPlayers\": [\"p2\"],"
+                        + " \"tournamentSetup\": {\"type\": \"playoff\", \"levels\": {}}}",
+                TournamentDescription.class);
+        try (InputStream is = getClass().getResourceAsStream("/fixture/players.json")) {
+            directory = PlayerDirectory.read(is, new ChessBaseObjectMapper(emptyMap()), tournamentDescription);
+        }
+    }
+
+    @Test
+    public void registeredPlayersFollowTheTournamentOrder() {
+        List<String> ids = new ArrayList<>();
+        for (Player player : directory.getRegisteredPlayers()) {
+            ids.add(player.getId());
+        }
+        assertEquals(Arrays.asList("p3", "p1", "p2"), ids);
+        assertEquals(8, directory.getPlayers().size());
+    }
+
+    @Test
+    public void playersAreLookedUpById() {
+        assertEquals("p4", directory.getPlayer("p4").getId());
+        assertNull(directory.getPlayer("unknown"));
+        assertNull(directory.getPlayer(null));
+    }
+
+    @Test
+    public void displayNameFallsBackToTheId() {
+        assertEquals("Anna Abramova", directory.getDisplayName("p1"));
+        assertEquals("unknown", directory.getDisplayName("unknown"));
+        assertNull(directory.getDisplayName((String) null));
+    }
+
+    @Test
+    public void storageHoldsTheRegisteredPlayersOnly() {
+        assertNotNull(directory.toPlayerStorage().getPlayer("p1").orElse(null));
+        assertFalse(directory.toPlayerStorage().getPlayer("p5").isPresent());
+    }
+}
@@ -0,0 +1,164 @@
+package ru.appliedtech.chess.playoffsite.rating;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.TimeControlType;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator.PlayoffLevelPlayersJsonRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RatingTrackerTest {
+    private static final String ARMAGEDDON = "ARMAGEDDON";
+    private static final String STATE_FILE = RatingTracker.RATINGS_DIR_NAME + "/state.json";
+    private static final int ROUNDS = 2;
+    private static final int TOURNAMENTS = 20;
+    // Quarterfinals, semifinals between their winners, the final and the match for third place.
+    private static final String[][] MATCHES = {
+            {"QUARTERFINAL", "p0", "p1"}, {"QUARTERFINAL", "p2", "p3"},
+            {"QUARTERFINAL", "p4", "p5"}, {"QUARTERFINAL", "p6", "p7"},
+            {"SEMIFINAL", "p0", "p2"}, {"SEMIFINAL", "p4", "p6"},
+            {"FINAL", "p0", "p4"}, {"FOR_THIRD", "p2", "p6"}
+    };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void winnerGainsWhatLoserLoses() throws IOException {
+        RatingTracker tracker = RatingTracker.load(folder.newFolder());
+        Map<String, List<Integer>> results = new LinkedHashMap<>();
+        results.put(TimeControlType.values()[0].name(), Collections.singletonList(4));
+        assertEquals(1, tracker.update(Collections.singletonList(record(MATCHES[0])), Collections.singletonList(results)));
+        LevelRatings ratings = tracker.get(0);
+        assertTrue(ratings.getChange("p0").signum() > 0);
+        assertEquals(ratings.getChange("p0").negate(), ratings.getChange("p1"));
+        assertEquals(RatingTracker.INITIAL_RATING.add(ratings.getChange("p0")), ratings.getRating("p0"));
+    }
+
+    // Reveals the games of random playoffs a few at a time, in random order, and checks after
+    // every run that the ratings kept incrementally across runs are exactly those of applying
+    // everything revealed so far in one go. Runs also reorder levels, correct results that were
+    // already applied, and lose the stored state.
+    @Test
+    public void incrementalRatingsEqualAFullRecompute() throws IOException {
+        for (int seed = 1; seed <= TOURNAMENTS; seed++) {
+            check(new Random(seed), seed);
+        }
+    }
+
+    private void check(Random random, int seed) throws IOException {
+        List<String> timeControls = new ArrayList<>();
+        for (TimeControlType timeControlType : TimeControlType.values()) {
+            timeControls.add(timeControlType.name());
+        }
+        timeControls.add(ARMAGEDDON);
+        // All games of the tournament, and how many of each match and time control are revealed.
+        List<Map<String, List<Integer>>> games = new ArrayList<>();
+        List<Map<String, Integer>> revealed = new ArrayList<>();
+        for (int m = 0; m < MATCHES.length; m++) {
+            Map<String, List<Integer>> matchGames = new LinkedHashMap<>();
+            Map<String, Integer> matchRevealed = new LinkedHashMap<>();
+            for (String timeControl : timeControls) {
+                int rounds = timeControl.equals(ARMAGEDDON) ? random.nextInt(2) : ROUNDS;
+                List<Integer> quarters = new ArrayList<>();
+                for (int r = 0; r < rounds; r++) {
+                    quarters.add(random.nextInt(5));
+                }
+                matchGames.put(timeControl, quarters);
+                matchRevealed.put(timeControl, 0);
+            }
+            games.add(matchGames);
+            revealed.add(matchRevealed);
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int m = 0; m < MATCHES.length; m++) {
+            order.add(m);
+        }
+        File dir = folder.newFolder();
+        File incrementalDir = new File(dir, "incremental");
+        int runs = 0;
+        while (reveal(random, games, revealed)) {
+            runs++;
+            if (random.nextInt(5) == 0) {
+                Collections.shuffle(order, random);
+            }
+            if (random.nextInt(10) == 0) {
+                correct(random, games, revealed);
+            }
+            if (random.nextInt(10) == 0) {
+                Files.deleteIfExists(new File(incrementalDir, STATE_FILE).toPath());
+            }
+            List<PlayoffLevelPlayersJsonRecord> records = new ArrayList<>();
+            List<Map<String, List<Integer>>> results = new ArrayList<>();
+            for (int m : order) {
+                records.add(record(MATCHES[m]));
+                Map<String, List<Integer>> matchResults = new LinkedHashMap<>();
+                for (String timeControl : timeControls) {
+                    matchResults.put(timeControl, new ArrayList<>(
+                            games.get(m).get(timeControl).subList(0, revealed.get(m).get(timeControl))));
+                }
+                results.add(matchResults);
+            }
+            RatingTracker incremental = RatingTracker.load(incrementalDir);
+            incremental.update(records, results);
+            incremental.save();
+            File fullDir = new File(dir, "full-" + runs);
+            RatingTracker full = RatingTracker.load(fullDir);
+            full.update(records, results);
+            full.save();
+            assertEquals("Seed " + seed + ", run " + runs,
+                    new String(Files.readAllBytes(new File(fullDir, STATE_FILE).toPath()), StandardCharsets.UTF_8),
+                    new String(Files.readAllBytes(new File(incrementalDir, STATE_FILE).toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
+    // Reveals the next few games of random matches and time controls; false once all are.
+    private static boolean reveal(Random random, List<Map<String, List<Integer>>> games,
+                                  List<Map<String, Integer>> revealed) {
+        int count = 1 + random.nextInt(4);
+        boolean any = false;
+        for (int attempt = 0; attempt < 100 && count > 0; attempt++) {
+            int m = random.nextInt(MATCHES.length);
+            for (Map.Entry<String, Integer> entry : revealed.get(m).entrySet()) {
+                if (entry.getValue() < games.get(m).get(entry.getKey()).size()) {
+                    entry.setValue(entry.getValue() + 1);
+                    count--;
+                    any = true;
+                    break;
+                }
+            }
+        }
+        return any;
+    }
+
+    private static void correct(Random random, List<Map<String, List<Integer>>> games,
+                                List<Map<String, Integer>> revealed) {
+        int m = random.nextInt(MATCHES.length);
+        for (Map.Entry<String, Integer> entry : revealed.get(m).entrySet()) {
+            if (entry.getValue() > 0) {
+                games.get(m).get(entry.getKey()).set(random.nextInt(entry.getValue()), random.nextInt(5));
+                return;
+            }
+        }
+    }
+
+    private PlayoffLevelPlayersJsonRecord record(String[] match) throws IOException {
+        ObjectNode record = mapper.createObjectNode();
+        record.put("level", match[0]);
+        record.put("player1", match[1]);
+        record.put("player2", match[2]);
+        return mapper.treeToValue(record, PlayoffLevelPlayersJsonRecord.class);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.appliedtech.chess.playoffsite.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.appliedtech.chess.playoffsite.GeneratedSite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class PlayoffSiteServerTest {
+    private static final String INDEX = "<html>index</html>";
+    private static final String FRAGMENT = "<table>level</table>";
+
+    private PlayoffSiteServer server;
+    private int port;
+
+    @Before
+    public void setUp() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new PlayoffSiteServer(port, 2);
+        server.siteGenerated(new GeneratedSite(INDEX.getBytes(StandardCharsets.UTF_8), Collections.singletonList(FRAGMENT)));
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void getServesTheIndexWithAnEtag() throws IOException {
+        HttpURLConnection connection = open("/", "GET");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("text/html; charset=UTF-8", connection.getContentType());
+        assertNotNull(connection.getHeaderField("ETag"));
+        assertEquals(INDEX, new String(read(connection.getInputStream()), StandardCharsets.UTF_8));
+        HttpURLConnection fragment = open("/levels/0.html", "GET");
+        assertEquals(FRAGMENT, new String(read(fragment.getInputStream()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void matchingEtagIsNotModified() throws IOException {
+        String etag = open("/index.html", "GET").getHeaderField("ETag");
+        HttpURLConnection connection = open("/index.html", "GET");
+        connection.setRequestProperty("If-None-Match", etag);
+        assertEquals(304, connection.getResponseCode());
+    }
+
+    @Test
+    public void headHasTheLengthOfGetAndNoBody() throws IOException {
+        HttpURLConnection get = open("/", "GET");
+        HttpURLConnection head = open("/", "HEAD");
+        assertEquals(200, head.getResponseCode());
+        assertEquals(get.getHeaderField("Content-Length"), head.getHeaderField("Content-Length"));
+        assertEquals(String.valueOf(INDEX.length()), head.getHeaderField("Content-Length"));
+        assertEquals(get.getHeaderField("ETag"), head.getHeaderField("ETag"));
+        assertEquals(0, read(head.getInputStream()).length);
+    }
+
+    @Test
+    public void gzipIsServedWhenAccepted() throws IOException {
+        String etag = open("/", "GET").getHeaderField("ETag");
+        HttpURLConnection connection = open("/", "GET");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        assertEquals("gzip", connection.getHeaderField("Content-Encoding"));
+        assertNotEquals(etag, connection.getHeaderField("ETag"));
+        try (InputStream is = new GZIPInputStream(connection.getInputStream())) {
+            assertEquals(INDEX, new String(read(is), StandardCharsets.UTF_8));
+        }
+        HttpURLConnection refused = open("/", "GET");
+        refused.setRequestProperty("Accept-Encoding", "gzip;q=0");
+        assertNull(refused.getHeaderField("Content-Encoding"));
+    }
+
+    @Test
+    public void unknownPathsAndMethodsAreRejected() throws IOException {
+        assertEquals(404, open("/missing.html", "GET").getResponseCode());
+        HttpURLConnection post = open("/", "POST");
+        assertEquals(405, post.getResponseCode());
+        assertEquals("GET, HEAD", post.getHeaderField("Allow"));
+    }
+
+    private HttpURLConnection open(String path, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    private static byte[] read(InputStream is) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = is.read(buffer)) != -1) {
+            result.write(buffer, 0, n);
+        }
+        is.close();
+        return result.toByteArray();
+    }
+}
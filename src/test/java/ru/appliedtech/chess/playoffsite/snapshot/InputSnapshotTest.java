@@ -0,0 +1,107 @@
+package ru.appliedtech.chess.playoffsite.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteGenerator;
+import ru.appliedtech.chess.playoffsite.PlayoffSiteOptions;
+import ru.appliedtech.chess.playoffsite.TestFixture;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class InputSnapshotTest {
+    private static final long MODIFIED = 1_500_000_000_000L;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void entriesSurviveSaveAndLoad() throws IOException {
+        File dir = folder.newFolder();
+        File input = write(new File(dir, "games.json"), "[{\"gameId\": \"g1\", \"score\": 0.5}]");
+        InputSnapshot.Content content = InputSnapshot.Content.read(input);
+        JsonNode tree = mapper.readTree(content.getBytes());
+        InputSnapshot snapshot = InputSnapshot.load(dir);
+        snapshot.put("games", input, content, tree, 17, 42);
+        snapshot.save();
+
+        InputSnapshot.Entry entry = InputSnapshot.load(dir).lookup("games", input);
+        assertNotNull(entry);
+        assertEquals(tree, entry.getTree());
+        assertEquals(17, entry.getOffset());
+        assertEquals(42, entry.getChecksum());
+        assertArrayEquals(content.getHash(), entry.getHash());
+    }
+
+    @Test
+    public void contentRewrittenWithTheSameSizeAndTimeIsAMiss() throws IOException {
+        File dir = folder.newFolder();
+        File input = write(new File(dir, "games.json"), "[\"1-0\"]");
+        assertTrue(input.setLastModified(MODIFIED));
+        InputSnapshot.Content content = InputSnapshot.Content.read(input);
+        InputSnapshot snapshot = InputSnapshot.load(dir);
+        snapshot.put("games", input, content, mapper.readTree(content.getBytes()), 0, 0);
+        snapshot.save();
+
+        write(input, "[\"0-1\"]");
+        assertTrue(input.setLastModified(MODIFIED));
+        assertNull(InputSnapshot.load(dir).lookup("games", input));
+        assertNotNull(InputSnapshot.load(dir).getEntry("games"));
+    }
+
+    @Test
+    public void fileChangedAfterReadingIsNotStored() throws IOException {
+        File dir = folder.newFolder();
+        File input = write(new File(dir, "games.json"), "[]");
+        InputSnapshot.Content content = InputSnapshot.Content.read(input);
+        write(input, "[\"1-0\"]");
+        InputSnapshot snapshot = InputSnapshot.load(dir);
+        snapshot.put("games", input, content, mapper.readTree(content.getBytes()), 0, 0);
+
+        assertNull(snapshot.getEntry("games"));
+    }
+
+    @Test
+    public void damagedSnapshotIsIgnored() throws IOException {
+        File dir = folder.newFolder();
+        write(new File(dir, InputSnapshot.FILE_NAME), "not a snapshot");
+        assertNull(InputSnapshot.load(dir).getEntry("games"));
+    }
+
+    @Test
+    public void runWithSnapshotSeesResultsRewrittenInPlace() throws Exception {
+        TestFixture fixture = TestFixture.copyTo(folder.newFolder());
+        File outputDir = folder.newFolder();
+        PlayoffSiteOptions options = new PlayoffSiteOptions().setSnapshot(true);
+        fixture.generate(new PlayoffSiteGenerator(options), outputDir);
+        Map<String, String> before = TestFixture.readPages(outputDir);
+        File games = fixture.getGamesFile();
+        long lastModified = games.lastModified();
+        String original = TestFixture.read(games);
+        String changed = original.replaceFirst("\"1-0\"", "\"0-1\"");
+        assertNotEquals(original, changed);
+        write(games, changed);
+        assertTrue(games.setLastModified(lastModified));
+
+        fixture.generate(new PlayoffSiteGenerator(options), outputDir);
+        File expectedDir = folder.newFolder();
+        fixture.generate(new PlayoffSiteGenerator(new PlayoffSiteOptions()), expectedDir);
+        assertNotEquals(before, TestFixture.readPages(outputDir));
+        assertEquals(TestFixture.readPages(expectedDir), TestFixture.readPages(outputDir));
+    }
+
+    private static File write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}